@@ -0,0 +1,71 @@
+package com.ekart.common.events.dedup;
+
+import com.ekart.common.events.BaseEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Drops redelivered events for at-least-once consumers. Recent event IDs are
+ * answered from memory; anything else is claimed in the durable store, whose
+ * unique key decides between concurrent or long-delayed redeliveries.
+ */
+@Slf4j
+public class EventDeduplicator {
+
+    private final RecentEventFilter recentEvents;
+    private final ProcessedEventStore store;
+
+    public EventDeduplicator(RecentEventFilter recentEvents, ProcessedEventStore store) {
+        this.recentEvents = recentEvents;
+        this.store = store;
+    }
+
+    /**
+     * @return true if the caller should process the event, false if it is a duplicate
+     */
+    public boolean claim(String consumer, BaseEvent event) {
+        String eventId = event.getEventId();
+        if (eventId == null) {
+            log.warn("Event of type {} has no eventId, cannot deduplicate for {}", event.getEventType(), consumer);
+            return true;
+        }
+
+        String key = consumer + ":" + eventId;
+        if (recentEvents.contains(key)) {
+            log.info("Dropping duplicate event {} for {}", eventId, consumer);
+            return false;
+        }
+
+        if (!store.markProcessed(consumer, eventId)) {
+            recentEvents.add(key);
+            log.info("Dropping duplicate event {} for {}", eventId, consumer);
+            return false;
+        }
+
+        // A rolled-back claim must not hide the redelivery, so only remember it once committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentEvents.add(key);
+                }
+            });
+        } else {
+            recentEvents.add(key);
+        }
+        return true;
+    }
+
+    /**
+     * Gives up a claim whose processing failed, so the redelivery of the event is not dropped.
+     */
+    public void release(String consumer, BaseEvent event) {
+        String eventId = event.getEventId();
+        if (eventId == null) {
+            return;
+        }
+        recentEvents.remove(consumer + ":" + eventId);
+        store.release(consumer, eventId);
+    }
+}
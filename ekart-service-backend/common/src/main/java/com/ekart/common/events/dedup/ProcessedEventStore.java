@@ -0,0 +1,19 @@
+package com.ekart.common.events.dedup;
+
+public interface ProcessedEventStore {
+
+    /**
+     * Records that the consumer has processed the event.
+     *
+     * @return true if this is the first record for the pair, false if it was already present
+     */
+    boolean markProcessed(String consumer, String eventId);
+
+    /**
+     * Forgets the record after the consumer failed to process the event, so a redelivery is
+     * processed again. Stores that record within the consumer's transaction are released by its
+     * rollback and need not implement this.
+     */
+    default void release(String consumer, String eventId) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.ekart.common.events.dedup;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, lock-free table of 64-bit event fingerprints. A slot is overwritten
+ * when another fingerprint maps to it, so a miss only means "not seen recently".
+ */
+public class RecentEventFilter {
+
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    public RecentEventFilter(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    public boolean contains(String key) {
+        long fingerprint = fingerprint(key);
+        return slots.get(slot(fingerprint)) == fingerprint;
+    }
+
+    public void add(String key) {
+        long fingerprint = fingerprint(key);
+        slots.set(slot(fingerprint), fingerprint);
+    }
+
+    public void remove(String key) {
+        long fingerprint = fingerprint(key);
+        slots.compareAndSet(slot(fingerprint), fingerprint, 0);
+    }
+
+    private int slot(long fingerprint) {
+        return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+    }
+
+    // FNV-1a over the UTF-16 code units followed by a 64-bit finalizer.
+    // Zero marks an empty slot, so it is never returned.
+    static long fingerprint(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+}
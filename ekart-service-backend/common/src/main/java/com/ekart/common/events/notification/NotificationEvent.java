@@ -16,4 +16,6 @@ public class NotificationEvent extends BaseEvent {
     private String message;
     private String type; // EMAIL, SMS, PUSH
     private String orderId;
+    // TRANSACTIONAL (default) or PROMOTIONAL; promotional events go to notification-promotional-topic
+    private String priority;
 }
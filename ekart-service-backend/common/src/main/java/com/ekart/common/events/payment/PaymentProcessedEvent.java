@@ -19,4 +19,6 @@ public class PaymentProcessedEvent extends BaseEvent {
     private String paymentMethod;
     private String status; // SUCCESS, FAILED
     private String transactionId;
+    // Set on a FAILED payment the provider was never asked to charge, so it can be attempted again
+    private boolean retryable;
 }
@@ -0,0 +1,17 @@
+package com.ekart.common.events.payment;
+
+import com.ekart.common.events.BaseEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class PaymentRefundRequestedEvent extends BaseEvent {
+    private String paymentId; // optional, resolved from orderId when absent
+    private String orderId;
+    private String reason;
+}
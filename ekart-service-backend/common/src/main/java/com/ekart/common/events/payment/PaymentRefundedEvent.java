@@ -0,0 +1,21 @@
+package com.ekart.common.events.payment;
+
+import com.ekart.common.events.BaseEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class PaymentRefundedEvent extends BaseEvent {
+    private String paymentId;
+    private String orderId;
+    private BigDecimal amount;
+    private String status; // SUCCESS, FAILED
+    private String transactionId;
+}
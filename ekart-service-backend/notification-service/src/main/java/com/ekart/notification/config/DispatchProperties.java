@@ -0,0 +1,58 @@
+package com.ekart.notification.config;
+
+import com.ekart.notification.entity.Notification;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "notification.dispatch")
+public class DispatchProperties {
+
+    private Channel defaults = Channel.builtIn();
+
+    // Per-type overrides; settings a type leaves out are taken from the defaults
+    private Map<Notification.NotificationType, Channel> channels = new EnumMap<>(Notification.NotificationType.class);
+
+    // The Kafka consumer pauses once any queue is this full and resumes when all drop below the low mark
+    private double pauseAt = 0.8;
+    private double resumeAt = 0.5;
+
+    // Share of a busy channel's workers each priority lane gets while the other lane also has work
+    private Map<Notification.Priority, Integer> laneWeights = new EnumMap<>(Map.of(
+            Notification.Priority.TRANSACTIONAL, 9,
+            Notification.Priority.PROMOTIONAL, 1));
+
+    // How long an enqueue blocks on a full queue before the notification is failed for retry
+    private Duration maxWait = Duration.ofSeconds(10);
+
+    public Channel forType(Notification.NotificationType type) {
+        Channel override = channels.get(type);
+        return override != null ? defaults.overriddenBy(override) : defaults;
+    }
+
+    // Fields are nullable so an override can tell unset settings from configured ones
+    @Data
+    public static class Channel {
+        private Integer workers;
+        // Per priority lane
+        private Integer queueCapacity;
+
+        static Channel builtIn() {
+            Channel channel = new Channel();
+            channel.setWorkers(4);
+            channel.setQueueCapacity(1000);
+            return channel;
+        }
+
+        Channel overriddenBy(Channel override) {
+            Channel merged = new Channel();
+            merged.setWorkers(override.getWorkers() != null ? override.getWorkers() : workers);
+            merged.setQueueCapacity(override.getQueueCapacity() != null ? override.getQueueCapacity() : queueCapacity);
+            return merged;
+        }
+    }
+}
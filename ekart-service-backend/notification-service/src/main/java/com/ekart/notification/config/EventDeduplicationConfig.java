@@ -0,0 +1,20 @@
+package com.ekart.notification.config;
+
+import com.ekart.common.events.dedup.EventDeduplicator;
+import com.ekart.common.events.dedup.ProcessedEventStore;
+import com.ekart.common.events.dedup.RecentEventFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EventDeduplicationConfig {
+
+    @Value("${notification.events.dedup.filter-capacity:65536}")
+    private int filterCapacity;
+
+    @Bean
+    public EventDeduplicator eventDeduplicator(ProcessedEventStore processedEventStore) {
+        return new EventDeduplicator(new RecentEventFilter(filterCapacity), processedEventStore);
+    }
+}
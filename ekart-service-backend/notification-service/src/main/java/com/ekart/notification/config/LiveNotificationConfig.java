@@ -0,0 +1,37 @@
+package com.ekart.notification.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class LiveNotificationConfig {
+
+    // Channels are subscribed at runtime, as users connect to this instance
+    @Bean
+    public RedisMessageListenerContainer liveNotificationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            @Value("${notification.live.listener-threads:4}") int listenerThreads,
+            @Value("${notification.live.listener-queue-capacity:1000}") int listenerQueueCapacity) {
+        // Without an executor the container starts a new thread per message. When the queue is full,
+        // the subscription thread delivers the message itself, which slows reading from Redis.
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(listenerThreads);
+        executor.setMaxPoolSize(listenerThreads);
+        executor.setQueueCapacity(listenerQueueCapacity);
+        executor.setThreadNamePrefix("live-listener-");
+        executor.setDaemon(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(executor);
+        return container;
+    }
+}
@@ -0,0 +1,35 @@
+package com.ekart.notification.config;
+
+import com.ekart.notification.entity.Notification;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "notification.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Provider quotas per type, shared by all recipients; a type without an entry is not limited
+    private Map<Notification.NotificationType, Limit> providers = new EnumMap<>(Notification.NotificationType.class);
+
+    // Applied to each recipient of the type separately
+    private Map<Notification.NotificationType, Limit> recipients = new EnumMap<>(Notification.NotificationType.class);
+
+    // Random extra delay on deferred sends, so a throttled burst does not come back all at once
+    private Duration deferJitter = Duration.ofSeconds(2);
+
+    @Data
+    public static class Limit {
+        private double permitsPerSecond = 10;
+        private int burst = 10;
+        // Counted in Redis across all instances instead of in memory per instance
+        private boolean distributed = false;
+        // Part of the burst promotional sends may use, keeping the rest for transactional ones
+        private double promotionalShare = 0.5;
+    }
+}
@@ -1,17 +1,25 @@
 package com.ekart.notification.controller;
 
 import com.ekart.common.dto.ApiResponse;
+import com.ekart.notification.dto.InboxPageDto;
 import com.ekart.notification.dto.NotificationRequestDto;
 import com.ekart.notification.dto.NotificationResponseDto;
+import com.ekart.notification.repository.NotificationInbox;
+import com.ekart.notification.service.LiveNotificationHub;
 import com.ekart.notification.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -21,6 +29,7 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final LiveNotificationHub liveNotificationHub;
 
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
@@ -30,19 +39,45 @@ public class NotificationController {
         log.info("Send notification request for user: {}", requestDto.getUserId());
         
         NotificationResponseDto notification = notificationService.sendNotification(requestDto);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success(notification, "Notification sent successfully"));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(notification, "Notification queued for delivery"));
     }
 
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<List<NotificationResponseDto>>> getUserNotifications(@PathVariable String userId) {
+    public ResponseEntity<ApiResponse<InboxPageDto>> getUserNotifications(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
         log.info("Get notifications request for user: {}", userId);
         
-        List<NotificationResponseDto> notifications = notificationService.getUserNotifications(userId);
+        // Checked here, so a bad cursor is not retried and counted against the circuit breaker
+        if (cursor != null && !cursor.isBlank() && !NotificationInbox.isValidCursor(cursor)) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Invalid notification cursor"));
+        }
+        
+        InboxPageDto notifications = notificationService.getUserNotifications(userId, cursor, size);
         return ResponseEntity.ok(ApiResponse.success(notifications, "Notifications retrieved successfully"));
     }
 
+    // Server-sent events: each new in-app notification arrives as a "notification" event
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public SseEmitter streamNotifications() {
+        String userId = getCurrentUserId();
+        log.info("Notification stream opened for user: {}", userId);
+        
+        return liveNotificationHub.connect(userId);
+    }
+
+    @GetMapping("/unread-count")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Long>> getUnreadCount() {
+        long unreadCount = notificationService.getUnreadCount(getCurrentUserId());
+        return ResponseEntity.ok(ApiResponse.success(unreadCount, "Unread count retrieved successfully"));
+    }
+
     @GetMapping("/{notificationId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<NotificationResponseDto>> getNotificationById(@PathVariable String notificationId) {
@@ -52,6 +87,20 @@ public class NotificationController {
         return ResponseEntity.ok(ApiResponse.success(notification, "Notification retrieved successfully"));
     }
 
+    @GetMapping("/archive")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<NotificationResponseDto>>> searchArchive(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false) String orderId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        
+        log.info("Archive search request for user: {} order: {}", userId, orderId);
+        
+        List<NotificationResponseDto> notifications = notificationService.searchArchive(userId, orderId, from, to);
+        return ResponseEntity.ok(ApiResponse.success(notifications, "Archived notifications retrieved successfully"));
+    }
+
     @PutMapping("/{notificationId}/read")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<NotificationResponseDto>> markAsRead(@PathVariable String notificationId) {
@@ -60,4 +109,19 @@ public class NotificationController {
         NotificationResponseDto notification = notificationService.markAsRead(notificationId);
         return ResponseEntity.ok(ApiResponse.success(notification, "Notification marked as read"));
     }
+
+    @PutMapping("/read-all")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Long>> markAllAsRead() {
+        String userId = getCurrentUserId();
+        log.info("Mark all notifications as read request for user: {}", userId);
+        
+        long marked = notificationService.markAllAsRead(userId);
+        return ResponseEntity.ok(ApiResponse.success(marked, "Notifications marked as read"));
+    }
+
+    private String getCurrentUserId() {
+        // Extract user ID from JWT token
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
 }
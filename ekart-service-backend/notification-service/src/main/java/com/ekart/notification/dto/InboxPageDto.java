@@ -0,0 +1,17 @@
+package com.ekart.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxPageDto {
+    
+    private List<NotificationResponseDto> notifications;
+    // Pass back to fetch the next page; null on the last page
+    private String nextCursor;
+}
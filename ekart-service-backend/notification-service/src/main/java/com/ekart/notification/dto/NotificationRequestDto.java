@@ -30,4 +30,10 @@ public class NotificationRequestDto {
     private String orderId;
     
     private String userId;
+    
+    // Optional, e.g. ORDER_CONFIRMATION; urgent categories skip the digest window
+    private String category;
+    
+    // Optional, defaults to TRANSACTIONAL
+    private Notification.Priority priority;
 }
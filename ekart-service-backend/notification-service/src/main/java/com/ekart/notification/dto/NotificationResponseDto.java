@@ -20,8 +20,11 @@ public class NotificationResponseDto {
     private Notification.NotificationType type;
     private Notification.NotificationStatus status;
     private String orderId;
+    private String category;
+    private Notification.Priority priority;
     private LocalDateTime createdAt;
     private LocalDateTime sentAt;
     private String errorMessage;
     private int retryCount;
+    private boolean read;
 }
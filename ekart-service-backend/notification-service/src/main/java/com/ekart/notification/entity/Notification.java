@@ -5,9 +5,11 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.redis.core.RedisHash;
+import org.springframework.data.redis.core.TimeToLive;
 import org.springframework.data.redis.core.index.Indexed;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @RedisHash("notifications")
 @Data
@@ -35,6 +37,17 @@ public class Notification {
     
     private String sagaId;
     
+    // What the notification is about, e.g. ORDER_CONFIRMATION; decides whether it may wait for a digest
+    private String category;
+    
+    // Decides the dispatch lane; promotional sends never hold up transactional ones
+    private Priority priority = Priority.TRANSACTIONAL;
+    
+    // On a digest, the notifications merged into it; on a merged notification, the digest carrying it
+    private List<String> digestOf;
+    
+    private String digestId;
+    
     private LocalDateTime createdAt = LocalDateTime.now();
     
     private LocalDateTime sentAt;
@@ -43,6 +56,10 @@ public class Notification {
     
     private int retryCount = 0;
     
+    // Seconds until Redis expires the record; unset until it reaches a final status (see NotificationArchiver)
+    @TimeToLive
+    private Long timeToLive;
+    
     public enum NotificationType {
         EMAIL,
         SMS,
@@ -50,6 +67,11 @@ public class Notification {
         IN_APP
     }
     
+    public enum Priority {
+        TRANSACTIONAL,
+        PROMOTIONAL
+    }
+    
     public enum NotificationStatus {
         PENDING,
         SENT,
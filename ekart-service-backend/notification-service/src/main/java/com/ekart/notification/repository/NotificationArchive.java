@@ -0,0 +1,66 @@
+package com.ekart.notification.repository;
+
+import com.ekart.notification.entity.Notification;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Archive of notifications that have left Redis, in a MongoDB collection shared by all instances.
+// Writes are upserts by id, so a batch archived again after a failed drain is not duplicated.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationArchive {
+
+    private static final String COLLECTION = "archived_notifications";
+
+    private final MongoTemplate mongoTemplate;
+
+    @PostConstruct
+    public void createIndexes() {
+        mongoTemplate.indexOps(COLLECTION).ensureIndex(
+                new Index().on("userId", Sort.Direction.ASC).on("createdAt", Sort.Direction.ASC));
+        mongoTemplate.indexOps(COLLECTION).ensureIndex(
+                new Index().on("orderId", Sort.Direction.ASC).on("createdAt", Sort.Direction.ASC));
+    }
+
+    public void append(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class, COLLECTION);
+        for (Notification notification : notifications) {
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(notification.getId())),
+                    notification, FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    // Notifications created on days in [from, to] for the user and/or order, oldest first
+    public List<Notification> search(String userId, String orderId, LocalDate from, LocalDate to, int limit) {
+        Criteria criteria = Criteria.where("createdAt")
+                .gte(from.atStartOfDay())
+                .lt(to.plusDays(1).atStartOfDay());
+        if (userId != null) {
+            criteria.and("userId").is(userId);
+        }
+        if (orderId != null) {
+            criteria.and("orderId").is(orderId);
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                .limit(limit);
+        return mongoTemplate.find(query, Notification.class, COLLECTION);
+    }
+}
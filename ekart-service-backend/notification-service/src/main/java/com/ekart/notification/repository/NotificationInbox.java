@@ -0,0 +1,345 @@
+package com.ekart.notification.repository;
+
+import com.ekart.notification.entity.Notification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Capped per-user inbox: a sorted set of notification ids scored by creation time plus a small
+// hash per entry, so a page costs one range read and one pipelined round trip for its entries.
+@Component
+@RequiredArgsConstructor
+public class NotificationInbox {
+
+    private static final String INBOX_PREFIX = "notification:inbox:";
+    private static final String ENTRY_PREFIX = "notification:inbox-entry:";
+    private static final int PREVIEW_LENGTH = 200;
+
+    private static final String UNREAD_PREFIX = "notification:unread:";
+    private static final String NOTIFICATION_PREFIX = "notifications:";
+    private static final String DELIVERED = Notification.NotificationStatus.DELIVERED.name();
+
+    // Adds the entry and counts it as unread, then trims the oldest ids (and their hashes) beyond the capacity
+    private static final RedisScript<Long> ADD = new DefaultRedisScript<>(
+            "redis.call('HSET', KEYS[2], unpack(ARGV, 7)) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[4]) " +
+            "if redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2]) == 1 and ARGV[6] ~= '1' then " +
+            "  redis.call('INCR', KEYS[3]) " +
+            "end " +
+            "local overflow = redis.call('ZCARD', KEYS[1]) - tonumber(ARGV[3]) " +
+            "if overflow > 0 then " +
+            "  local trimmedUnread = 0 " +
+            "  for _, id in ipairs(redis.call('ZRANGE', KEYS[1], 0, overflow - 1)) do " +
+            "    if redis.call('HGET', ARGV[5] .. id, 'read') == '0' then trimmedUnread = trimmedUnread + 1 end " +
+            "    redis.call('DEL', ARGV[5] .. id) " +
+            "  end " +
+            "  redis.call('ZREMRANGEBYRANK', KEYS[1], 0, overflow - 1) " +
+            "  if trimmedUnread > 0 and redis.call('DECRBY', KEYS[3], trimmedUnread) < 0 then " +
+            "    redis.call('SET', KEYS[3], 0) " +
+            "  end " +
+            "end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[4]) " +
+            "redis.call('EXPIRE', KEYS[3], ARGV[4]) " +
+            "return math.max(overflow, 0)",
+            Long.class);
+
+    private static final RedisScript<Long> UPDATE_STATUS = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then " +
+            "  return redis.call('HSET', KEYS[1], 'status', ARGV[1]) " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    // KEYS[1] is the unread counter, followed by (entry, notification) key pairs. Entries not yet
+    // read are flagged read and counted down once each. Only SENT notifications become DELIVERED;
+    // pending and failed ones keep their status so they are still retried. A SENT entry whose
+    // notification has already expired out of Redis is marked DELIVERED on its own.
+    private static final RedisScript<Long> MARK_READ = new DefaultRedisScript<>(
+            "local changed = 0 " +
+            "for i = 2, #KEYS, 2 do " +
+            "  if redis.call('HGET', KEYS[i], 'read') == '0' then " +
+            "    redis.call('HSET', KEYS[i], 'read', '1') " +
+            "    changed = changed + 1 " +
+            "  end " +
+            "  local status = redis.call('HGET', KEYS[i + 1], 'status') " +
+            "  if status == 'SENT' then " +
+            "    redis.call('HSET', KEYS[i + 1], 'status', ARGV[1]) " +
+            "    if redis.call('EXISTS', KEYS[i]) == 1 then redis.call('HSET', KEYS[i], 'status', ARGV[1]) end " +
+            "  elseif not status and redis.call('HGET', KEYS[i], 'status') == 'SENT' then " +
+            "    redis.call('HSET', KEYS[i], 'status', ARGV[1]) " +
+            "  end " +
+            "end " +
+            "if changed > 0 and redis.call('DECRBY', KEYS[1], changed) < 0 then " +
+            "  redis.call('SET', KEYS[1], 0) " +
+            "end " +
+            "return changed",
+            Long.class);
+
+    // Resets the counter to the unread entries actually held, dropping counts for entries that expired unread
+    private static final RedisScript<Long> RECOUNT = new DefaultRedisScript<>(
+            "local unread = 0 " +
+            "for _, id in ipairs(redis.call('ZRANGE', KEYS[1], 0, -1)) do " +
+            "  if redis.call('HGET', ARGV[1] .. id, 'read') == '0' then unread = unread + 1 end " +
+            "end " +
+            "redis.call('SET', KEYS[2], unread, 'EX', ARGV[2]) " +
+            "return unread",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${notification.inbox.capacity:200}")
+    private int capacity;
+
+    @Value("${notification.inbox.retention:90d}")
+    private Duration retention;
+
+    @Value("${notification.inbox.mark-read-batch-size:200}")
+    private int markReadBatchSize;
+
+    public void add(Notification notification) {
+        boolean read = notification.getStatus() == Notification.NotificationStatus.DELIVERED;
+        List<String> args = new ArrayList<>(List.of(
+                String.valueOf(toMillis(notification.getCreatedAt())),
+                notification.getId(),
+                String.valueOf(capacity),
+                String.valueOf(retention.toSeconds()),
+                ENTRY_PREFIX,
+                read ? "1" : "0"));
+        args.addAll(List.of(
+                "id", notification.getId(),
+                "userId", notification.getUserId(),
+                "type", notification.getType().name(),
+                "status", notification.getStatus().name(),
+                "subject", nullToEmpty(notification.getSubject()),
+                "message", preview(notification.getMessage()),
+                "orderId", nullToEmpty(notification.getOrderId()),
+                "createdAt", String.valueOf(toMillis(notification.getCreatedAt())),
+                "read", read ? "1" : "0"));
+
+        redisTemplate.execute(ADD, List.of(inboxKey(notification.getUserId()), ENTRY_PREFIX + notification.getId(),
+                unreadKey(notification.getUserId())), args.toArray());
+    }
+
+    public void addAll(Collection<Notification> notifications) {
+        notifications.forEach(this::add);
+    }
+
+    // Entries that have been trimmed or expired are left alone
+    public void updateStatus(Notification notification) {
+        redisTemplate.execute(UPDATE_STATUS, List.of(ENTRY_PREFIX + notification.getId()),
+                notification.getStatus().name());
+    }
+
+    // Returns false if the entry was already read, or has been trimmed or expired
+    public boolean markRead(String userId, String notificationId) {
+        Long changed = redisTemplate.execute(MARK_READ,
+                List.of(unreadKey(userId), ENTRY_PREFIX + notificationId, NOTIFICATION_PREFIX + notificationId),
+                DELIVERED);
+        return changed != null && changed > 0;
+    }
+
+    // Entries outlive the notification records, which expire after their archival retention
+    public Optional<Entry> find(String notificationId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(ENTRY_PREFIX + notificationId);
+        if (fields.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<String, String> values = new HashMap<>();
+        fields.forEach((field, value) -> values.put((String) field, (String) value));
+        return Optional.of(toEntry(values));
+    }
+
+    // Walks the inbox oldest first, one script call per batch of entries, then recounts
+    public long markAllRead(String userId) {
+        String key = inboxKey(userId);
+        long marked = 0;
+        for (long start = 0; ; start += markReadBatchSize) {
+            Set<String> ids = redisTemplate.opsForZSet().range(key, start, start + markReadBatchSize - 1);
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+
+            List<String> keys = new ArrayList<>(1 + ids.size() * 2);
+            keys.add(unreadKey(userId));
+            for (String id : ids) {
+                keys.add(ENTRY_PREFIX + id);
+                keys.add(NOTIFICATION_PREFIX + id);
+            }
+            Long changed = redisTemplate.execute(MARK_READ, keys, DELIVERED);
+            marked += changed != null ? changed : 0;
+
+            if (ids.size() < markReadBatchSize) {
+                break;
+            }
+        }
+
+        // The inbox is capped, so a full recount is cheap
+        redisTemplate.execute(RECOUNT, List.of(key, unreadKey(userId)), ENTRY_PREFIX,
+                String.valueOf(retention.toSeconds()));
+        return marked;
+    }
+
+    // Entries that expire unread are not counted down, so the count can run high until the next mark-all-read
+    public long unreadCount(String userId) {
+        String count = redisTemplate.opsForValue().get(unreadKey(userId));
+        return count != null ? Math.max(0, Long.parseLong(count)) : 0;
+    }
+
+    public boolean exists(String userId) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(inboxKey(userId)));
+    }
+
+    // A cursor is "score:id" as returned by read
+    public static boolean isValidCursor(String cursor) {
+        int separator = cursor.indexOf(':');
+        if (separator <= 0 || separator == cursor.length() - 1) {
+            return false;
+        }
+        try {
+            return Double.isFinite(Double.parseDouble(cursor.substring(0, separator)));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Newest first. The cursor is the score and id of the last entry of the previous page.
+    public Page read(String userId, String cursor, int size) {
+        String key = inboxKey(userId);
+        double max = Double.POSITIVE_INFINITY;
+        String afterId = null;
+        long skipTies = 0;
+
+        if (cursor != null && !cursor.isBlank()) {
+            if (!isValidCursor(cursor)) {
+                throw new IllegalArgumentException("Invalid notification cursor");
+            }
+            int separator = cursor.indexOf(':');
+            max = Double.parseDouble(cursor.substring(0, separator));
+            afterId = cursor.substring(separator + 1);
+            // Entries sharing the cursor's timestamp come back again and are skipped below
+            Long ties = redisTemplate.opsForZSet().count(key, max, max);
+            skipTies = ties != null ? ties : 0;
+        }
+
+        Set<ZSetOperations.TypedTuple<String>> range = redisTemplate.opsForZSet()
+                .reverseRangeByScoreWithScores(key, Double.NEGATIVE_INFINITY, max, 0, size + 1 + skipTies);
+
+        List<ZSetOperations.TypedTuple<String>> ids = new ArrayList<>(size + 1);
+        if (range != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : range) {
+                // Equal scores are returned in descending id order
+                if (afterId != null && tuple.getScore() == max && tuple.getValue().compareTo(afterId) >= 0) {
+                    continue;
+                }
+                ids.add(tuple);
+                if (ids.size() > size) {
+                    break;
+                }
+            }
+        }
+
+        boolean hasMore = ids.size() > size;
+        List<ZSetOperations.TypedTuple<String>> pageIds = hasMore ? ids.subList(0, size) : ids;
+
+        List<Object> hashes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            pageIds.forEach(tuple -> stringConnection.hGetAll(ENTRY_PREFIX + tuple.getValue()));
+            return null;
+        });
+
+        List<Entry> entries = new ArrayList<>(pageIds.size());
+        for (Object hash : hashes) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> fields = (Map<String, String>) hash;
+            if (fields != null && !fields.isEmpty()) {
+                entries.add(toEntry(fields));
+            }
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            ZSetOperations.TypedTuple<String> last = pageIds.get(pageIds.size() - 1);
+            nextCursor = last.getScore().longValue() + ":" + last.getValue();
+        }
+        return new Page(entries, nextCursor);
+    }
+
+    private Entry toEntry(Map<String, String> fields) {
+        return new Entry(
+                fields.get("id"),
+                emptyToNull(fields.get("userId")),
+                Notification.NotificationType.valueOf(fields.get("type")),
+                Notification.NotificationStatus.valueOf(fields.get("status")),
+                emptyToNull(fields.get("subject")),
+                emptyToNull(fields.get("message")),
+                emptyToNull(fields.get("orderId")),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(fields.get("createdAt"))), ZoneId.systemDefault()),
+                "1".equals(fields.get("read")));
+    }
+
+    private String inboxKey(String userId) {
+        return INBOX_PREFIX + userId;
+    }
+
+    private String unreadKey(String userId) {
+        return UNREAD_PREFIX + userId;
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String preview(String message) {
+        if (message == null) {
+            return "";
+        }
+        return message.length() <= PREVIEW_LENGTH ? message : message.substring(0, PREVIEW_LENGTH);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    @lombok.Value
+    public static class Entry {
+        String id;
+        // Missing on entries written before it was stored
+        String userId;
+        Notification.NotificationType type;
+        Notification.NotificationStatus status;
+        String subject;
+        String message;
+        String orderId;
+        LocalDateTime createdAt;
+        boolean read;
+    }
+
+    @lombok.Value
+    public static class Page {
+        List<Entry> entries;
+        // Null on the last page
+        String nextCursor;
+    }
+}
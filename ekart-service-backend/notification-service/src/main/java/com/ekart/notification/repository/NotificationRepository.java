@@ -20,6 +20,4 @@ public interface NotificationRepository extends CrudRepository<Notification, Str
     List<Notification> findByOrderId(String orderId);
     
     List<Notification> findBySagaId(String sagaId);
-    
-    List<Notification> findByStatusAndRetryCountLessThan(Notification.NotificationStatus status, int maxRetries);
 }
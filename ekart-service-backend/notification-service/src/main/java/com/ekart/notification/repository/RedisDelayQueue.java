@@ -0,0 +1,51 @@
+package com.ekart.notification.repository;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+// Sorted set of ids scored by due time. Instances claim due ids atomically, so they share
+// the work without scanning; a claim pushes the score out by the claim timeout instead of
+// removing the id, so work left by an instance that dies comes due again.
+public class RedisDelayQueue {
+
+    private static final RedisScript<List> CLAIM_DUE = new DefaultRedisScript<>(
+            "local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2]) " +
+            "for _, id in ipairs(due) do redis.call('ZADD', KEYS[1], ARGV[3], id) end " +
+            "return due",
+            List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+
+    public RedisDelayQueue(StringRedisTemplate redisTemplate, String key) {
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+    }
+
+    public void schedule(String id, long dueAtMillis) {
+        redisTemplate.opsForZSet().add(key, id, dueAtMillis);
+    }
+
+    public void remove(String id) {
+        redisTemplate.opsForZSet().remove(key, id);
+    }
+
+    public void removeAll(Collection<String> ids) {
+        if (!ids.isEmpty()) {
+            redisTemplate.opsForZSet().remove(key, ids.toArray());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> claimDue(int limit, Duration claimTimeout) {
+        long now = System.currentTimeMillis();
+        List<String> claimed = redisTemplate.execute(CLAIM_DUE, List.of(key),
+                String.valueOf(now), String.valueOf(limit), String.valueOf(now + claimTimeout.toMillis()));
+        return claimed != null ? claimed : List.of();
+    }
+}
@@ -0,0 +1,34 @@
+package com.ekart.notification.repository;
+
+import com.ekart.common.events.dedup.ProcessedEventStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+public class RedisProcessedEventStore implements ProcessedEventStore {
+
+    private static final String KEY_PREFIX = "processed-event:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${notification.events.dedup.retention:7d}")
+    private Duration retention;
+
+    @Override
+    public boolean markProcessed(String consumer, String eventId) {
+        Boolean created = redisTemplate.opsForValue()
+                .setIfAbsent(KEY_PREFIX + consumer + ":" + eventId, "1", retention);
+        return Boolean.TRUE.equals(created);
+    }
+
+    // Redis has no transaction to roll the claim back with, so a failed consumer deletes it
+    @Override
+    public void release(String consumer, String eventId) {
+        redisTemplate.delete(KEY_PREFIX + consumer + ":" + eventId);
+    }
+}
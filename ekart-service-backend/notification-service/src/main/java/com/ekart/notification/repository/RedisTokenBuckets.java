@@ -0,0 +1,57 @@
+package com.ekart.notification.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Token buckets shared by all instances. Same scheme as TokenBucket: each key holds the time, in
+// Redis server microseconds, at which its bucket is full again, and expires once it is.
+@Component
+@RequiredArgsConstructor
+public class RedisTokenBuckets {
+
+    private static final String KEY_PREFIX = "notification:rate:";
+
+    // Returns 0 once a token is taken, otherwise the milliseconds until one is available
+    private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>(
+            "local time = redis.call('TIME') " +
+            "local now = tonumber(time[1]) * 1000000 + tonumber(time[2]) " +
+            "local interval = tonumber(ARGV[1]) " +
+            "local fullAt = math.max(tonumber(redis.call('GET', KEYS[1]) or now), now) " +
+            "local wait = fullAt + interval - now - interval * tonumber(ARGV[2]) " +
+            "if wait > 0 then return math.floor(wait / 1000) + 1 end " +
+            "local nextFullAt = fullAt + interval " +
+            // Formatted explicitly, as Lua would write a number this large in exponent form
+            "redis.call('SET', KEYS[1], string.format('%.0f', nextFullAt), " +
+            "  'PX', string.format('%.0f', math.floor((nextFullAt - now) / 1000) + 1)) " +
+            "return 0",
+            Long.class);
+
+    private static final RedisScript<Long> REFUND = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then " +
+            "  return redis.call('DECRBY', KEYS[1], ARGV[1]) " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    // A fractional burst lets a caller stop short of emptying the bucket
+    public long tryAcquire(String bucket, double permitsPerSecond, double burst) {
+        Long wait = redisTemplate.execute(ACQUIRE, List.of(KEY_PREFIX + bucket),
+                String.valueOf(intervalMicros(permitsPerSecond)), String.valueOf(burst));
+        return wait != null ? wait : 0;
+    }
+
+    public void refund(String bucket, double permitsPerSecond) {
+        redisTemplate.execute(REFUND, List.of(KEY_PREFIX + bucket), String.valueOf(intervalMicros(permitsPerSecond)));
+    }
+
+    private static long intervalMicros(double permitsPerSecond) {
+        return (long) (1_000_000 / permitsPerSecond);
+    }
+}
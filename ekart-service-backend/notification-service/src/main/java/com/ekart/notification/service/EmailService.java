@@ -1,10 +1,9 @@
 package com.ekart.notification.service;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
@@ -12,6 +11,7 @@ import org.thymeleaf.context.Context;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -19,24 +19,43 @@ import java.util.Map;
 @Slf4j
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final MailDispatchEngine mailDispatchEngine;
     private final TemplateEngine templateEngine;
     
     @Value("${spring.mail.username}")
     private String fromEmail;
+    
+    @Value("${notification.email.templates:}")
+    private List<String> templates;
+
+    // Parses the known templates into the template cache at startup, so the first send does not pay for it
+    @PostConstruct
+    public void precompileTemplates() {
+        for (String template : templates) {
+            try {
+                templateEngine.process(template, new Context());
+                log.info("Precompiled email template: {}", template);
+            } catch (Exception e) {
+                log.warn("Failed to precompile email template: {}", template, e);
+            }
+        }
+    }
 
     public boolean sendEmail(String to, String subject, String message) {
         try {
-            SimpleMailMessage mailMessage = new SimpleMailMessage();
-            mailMessage.setFrom(fromEmail);
-            mailMessage.setTo(to);
-            mailMessage.setSubject(subject);
-            mailMessage.setText(message);
+            MimeMessage mimeMessage = mailDispatchEngine.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, false);
             
-            mailSender.send(mailMessage);
+            helper.setFrom(fromEmail);
+            helper.setTo(to);
+            helper.setSubject(subject);
+            helper.setText(message);
             
-            log.info("Email sent successfully to: {}", to);
-            return true;
+            boolean sent = mailDispatchEngine.send(mimeMessage);
+            if (sent) {
+                log.info("Email sent successfully to: {}", to);
+            }
+            return sent;
             
         } catch (Exception e) {
             log.error("Failed to send email to: {}", to, e);
@@ -46,23 +65,14 @@ public class EmailService {
 
     public boolean sendHtmlEmail(String to, String subject, String templateName, Map<String, Object> variables) {
         try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
-            
             Context context = new Context();
             context.setVariables(variables);
             
-            String htmlContent = templateEngine.process(templateName, context);
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlContent, true);
-            
-            mailSender.send(mimeMessage);
-            
-            log.info("HTML email sent successfully to: {}", to);
-            return true;
+            boolean sent = sendHtml(to, subject, templateEngine.process(templateName, context));
+            if (sent) {
+                log.info("HTML email sent successfully to: {}", to);
+            }
+            return sent;
             
         } catch (MessagingException e) {
             log.error("Failed to send HTML email to: {}", to, e);
@@ -76,24 +86,27 @@ public class EmailService {
             context.setVariable("customerName", customerName);
             context.setVariable("orderId", orderId);
             
-            String htmlContent = templateEngine.process("order-confirmation", context);
-            
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
-            
-            helper.setFrom(fromEmail);
-            helper.setTo(to);
-            helper.setSubject("Order Confirmation - " + orderId);
-            helper.setText(htmlContent, true);
-            
-            mailSender.send(mimeMessage);
-            
-            log.info("Order confirmation email sent successfully to: {}", to);
-            return true;
+            boolean sent = sendHtml(to, "Order Confirmation - " + orderId, templateEngine.process("order-confirmation", context));
+            if (sent) {
+                log.info("Order confirmation email sent successfully to: {}", to);
+            }
+            return sent;
             
         } catch (MessagingException e) {
             log.error("Failed to send order confirmation email to: {}", to, e);
             return false;
         }
     }
+
+    private boolean sendHtml(String to, String subject, String htmlContent) throws MessagingException {
+        MimeMessage mimeMessage = mailDispatchEngine.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true);
+        
+        helper.setFrom(fromEmail);
+        helper.setTo(to);
+        helper.setSubject(subject);
+        helper.setText(htmlContent, true);
+        
+        return mailDispatchEngine.send(mimeMessage);
+    }
 }
@@ -0,0 +1,213 @@
+package com.ekart.notification.service;
+
+import com.ekart.notification.dto.NotificationResponseDto;
+import com.ekart.notification.entity.Notification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Pushes in-app notifications to users' open SSE streams. Each instance holds the streams connected
+// to it and subscribes to a Redis channel per connected user, so a publish reaches only the
+// instances that have that user online.
+@Component
+@Slf4j
+public class LiveNotificationHub implements MessageListener {
+
+    private static final String CHANNEL_PREFIX = "notification:live:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    // Oldest stream first
+    private final Map<String, List<SseEmitter>> sessions = new ConcurrentHashMap<>();
+
+    // Users whose channel this instance is subscribed to; brought in line with sessions under a
+    // per-user stripe lock, outside the map's own locking, since subscribing talks to Redis
+    private final Set<String> subscribed = ConcurrentHashMap.newKeySet();
+    private final Object[] subscriptionLocks = new Object[64];
+
+    private ScheduledExecutorService heartbeatExecutor;
+
+    @Value("${notification.live.stream-timeout:30m}")
+    private Duration streamTimeout;
+
+    @Value("${notification.live.max-streams-per-user:5}")
+    private int maxStreamsPerUser;
+
+    @Value("${notification.live.heartbeat-interval:25000}")
+    private long heartbeatInterval;
+
+    public LiveNotificationHub(StringRedisTemplate redisTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        for (int i = 0; i < subscriptionLocks.length; i++) {
+            subscriptionLocks[i] = new Object();
+        }
+
+        Gauge.builder("notification.live.users", sessions, Map::size).register(meterRegistry);
+        Gauge.builder("notification.live.streams", sessions,
+                        s -> s.values().stream().mapToInt(List::size).sum())
+                .register(meterRegistry);
+    }
+
+    // Heartbeats write to every open stream, so a slow client must not hold up the shared scheduler
+    @PostConstruct
+    public void start() {
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("live-heartbeat-"));
+        heartbeatExecutor.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter connect(String userId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        List<SseEmitter> evicted = new ArrayList<>(1);
+
+        sessions.compute(userId, (id, streams) -> {
+            if (streams == null) {
+                streams = new CopyOnWriteArrayList<>();
+            }
+            while (streams.size() >= maxStreamsPerUser) {
+                evicted.add(streams.remove(0));
+            }
+            streams.add(emitter);
+            return streams;
+        });
+
+        emitter.onCompletion(() -> disconnect(userId, emitter));
+        emitter.onTimeout(() -> disconnect(userId, emitter));
+        emitter.onError(e -> disconnect(userId, emitter));
+
+        syncSubscription(userId);
+        // Completed outside compute(), since completion calls back into disconnect()
+        evicted.forEach(SseEmitter::complete);
+
+        // Commits the response so the client sees the stream open straight away
+        send(userId, emitter, SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    // The notification is already in the user's inbox, so a user with no open stream just sees it on next read
+    public boolean publish(Notification notification) {
+        if (notification.getUserId() == null) {
+            return true;
+        }
+        try {
+            String payload = objectMapper.writeValueAsString(toDto(notification));
+            Long receivers = redisTemplate.convertAndSend(channel(notification.getUserId()), payload);
+            log.debug("Published notification: {} to {} instances", notification.getId(), receivers);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to publish notification: {} for user: {}", notification.getId(), notification.getUserId(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        String userId = channel.substring(CHANNEL_PREFIX.length());
+        List<SseEmitter> streams = sessions.get(userId);
+        if (streams == null) {
+            return;
+        }
+
+        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+        for (SseEmitter emitter : streams) {
+            send(userId, emitter, SseEmitter.event().name("notification").data(payload, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    // Keeps idle streams open through proxies and finds clients that went away without closing
+    private void heartbeat() {
+        try {
+            sessions.forEach((userId, streams) -> streams.forEach(emitter ->
+                    send(userId, emitter, SseEmitter.event().comment("heartbeat"))));
+        } catch (Exception e) {
+            log.error("Failed to send notification stream heartbeats", e);
+        }
+    }
+
+    // Clients reconnect, reaching an instance that is still up
+    @PreDestroy
+    public void closeAll() {
+        heartbeatExecutor.shutdownNow();
+        sessions.values().forEach(streams -> streams.forEach(SseEmitter::complete));
+    }
+
+    private void send(String userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (Exception e) {
+            log.debug("Dropping closed notification stream of user: {}", userId);
+            disconnect(userId, emitter);
+        }
+    }
+
+    private void disconnect(String userId, SseEmitter emitter) {
+        sessions.computeIfPresent(userId, (id, streams) -> {
+            streams.remove(emitter);
+            return streams.isEmpty() ? null : streams;
+        });
+        syncSubscription(userId);
+    }
+
+    // Every change to a user's sessions is followed by this call, so the last one to take the lock
+    // sees the final state, however connects and disconnects interleave
+    private void syncSubscription(String userId) {
+        synchronized (subscriptionLocks[Math.floorMod(userId.hashCode(), subscriptionLocks.length)]) {
+            boolean online = sessions.containsKey(userId);
+            if (online && subscribed.add(userId)) {
+                listenerContainer.addMessageListener(this, new ChannelTopic(channel(userId)));
+            } else if (!online && subscribed.remove(userId)) {
+                listenerContainer.removeMessageListener(this, new ChannelTopic(channel(userId)));
+            }
+        }
+    }
+
+    private String channel(String userId) {
+        return CHANNEL_PREFIX + userId;
+    }
+
+    private NotificationResponseDto toDto(Notification notification) {
+        NotificationResponseDto dto = new NotificationResponseDto();
+        dto.setId(notification.getId());
+        dto.setUserId(notification.getUserId());
+        dto.setSubject(notification.getSubject());
+        dto.setMessage(notification.getMessage());
+        dto.setType(notification.getType());
+        dto.setStatus(Notification.NotificationStatus.SENT);
+        dto.setOrderId(notification.getOrderId());
+        dto.setCategory(notification.getCategory());
+        dto.setCreatedAt(notification.getCreatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,247 @@
+package com.ekart.notification.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Sends mail over a fixed pool of long-lived SMTP connections, one per sender thread, instead of
+// connecting, negotiating TLS and authenticating again for every message.
+@Component
+@Slf4j
+public class MailDispatchEngine {
+
+    private final JavaMailSender mailSender;
+    private final Timer sendTimer;
+    private final Counter connectionsOpened;
+
+    @Value("${notification.email.connections:4}")
+    private int connections;
+
+    // Providers cap messages per session, so connections are recycled after this many
+    @Value("${notification.email.max-messages-per-connection:100}")
+    private int maxMessagesPerConnection;
+
+    // Closed before the server's own idle timeout would drop it
+    @Value("${notification.email.idle-timeout:60s}")
+    private Duration idleTimeout;
+
+    @Value("${notification.email.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${notification.email.send-timeout:30s}")
+    private Duration sendTimeout;
+
+    private BlockingQueue<PendingMail> queue;
+    private final List<Thread> senders = new ArrayList<>();
+    private volatile boolean running;
+
+    public MailDispatchEngine(JavaMailSender mailSender, MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.sendTimer = Timer.builder("notification.mail.send.duration").register(meterRegistry);
+        this.connectionsOpened = meterRegistry.counter("notification.mail.connections.opened");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!(mailSender instanceof JavaMailSenderImpl)) {
+            log.warn("Mail sender is not a JavaMailSenderImpl, sending each message through it directly");
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        for (int i = 0; i < connections; i++) {
+            Thread sender = new Thread(this::runSender, "mail-sender-" + i);
+            sender.start();
+            senders.add(sender);
+        }
+        log.info("Mail dispatch engine started with {} SMTP connections", connections);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread sender : senders) {
+            sender.join(sendTimeout.toMillis());
+        }
+    }
+
+    public MimeMessage createMimeMessage() {
+        return mailSender.createMimeMessage();
+    }
+
+    // Blocks until the message is handed to the SMTP server or the send timeout passes. A message
+    // that times out before a sender picks it up is withdrawn, so a retry cannot deliver it twice.
+    public boolean send(MimeMessage message) {
+        if (!running) {
+            mailSender.send(message);
+            return true;
+        }
+
+        PendingMail pending = new PendingMail(message, new CompletableFuture<>(), new AtomicBoolean());
+        try {
+            if (!queue.offer(pending, sendTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.error("Mail queue full, dropping message");
+                return false;
+            }
+            return pending.getResult().get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (pending.claim()) {
+                pending.getResult().cancel(false);
+                log.error("Timed out waiting for a mail sender, message withdrawn");
+                return false;
+            }
+            // Already being sent; the SMTP timeouts bound the wait for its outcome
+            return awaitInFlight(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.error("Failed waiting for mail to be sent", e);
+            return false;
+        }
+    }
+
+    private boolean awaitInFlight(PendingMail pending) {
+        try {
+            return pending.getResult().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.error("Failed waiting for mail to be sent", e);
+            return false;
+        }
+    }
+
+    private void runSender() {
+        JavaMailSenderImpl sender = (JavaMailSenderImpl) mailSender;
+        Transport transport = null;
+        int sentOnConnection = 0;
+        long lastUsed = System.nanoTime();
+
+        while (running || !queue.isEmpty()) {
+            PendingMail pending;
+            try {
+                pending = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            if (pending == null) {
+                if (transport != null && System.nanoTime() - lastUsed > idleTimeout.toNanos()) {
+                    close(transport);
+                    transport = null;
+                }
+                continue;
+            }
+            // Withdrawn by a caller that gave up waiting
+            if (!pending.claim()) {
+                continue;
+            }
+
+            if (transport != null && sentOnConnection >= maxMessagesPerConnection) {
+                close(transport);
+                transport = null;
+            }
+
+            long start = System.nanoTime();
+            boolean sent = false;
+            // A pooled connection may have been dropped by the server, so a failure on a reused
+            // connection is retried once on a fresh one
+            for (int attempt = 0; attempt < 2 && !sent; attempt++) {
+                boolean reused = transport != null;
+                try {
+                    if (transport == null) {
+                        transport = connect(sender);
+                        sentOnConnection = 0;
+                    }
+                    MimeMessage message = pending.getMessage();
+                    message.saveChanges();
+                    transport.sendMessage(message, message.getAllRecipients());
+                    sentOnConnection++;
+                    sent = true;
+                } catch (SendFailedException e) {
+                    // Some recipients already have it, so sending again would duplicate it for them
+                    if (e.getValidSentAddresses() != null && e.getValidSentAddresses().length > 0) {
+                        log.warn("Mail only partly delivered, not resending; unsent: {}",
+                                Arrays.toString(e.getValidUnsentAddresses()), e);
+                        sentOnConnection++;
+                        sent = true;
+                        break;
+                    }
+                    close(transport);
+                    transport = null;
+                    if (!reused) {
+                        log.error("Failed to send mail", e);
+                        break;
+                    }
+                } catch (MessagingException e) {
+                    close(transport);
+                    transport = null;
+                    if (!reused) {
+                        log.error("Failed to send mail", e);
+                        break;
+                    }
+                }
+            }
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            lastUsed = System.nanoTime();
+            pending.getResult().complete(sent);
+        }
+
+        close(transport);
+    }
+
+    private Transport connect(JavaMailSenderImpl sender) throws MessagingException {
+        Transport transport = sender.getSession().getTransport(sender.getProtocol());
+        transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+        connectionsOpened.increment();
+        return transport;
+    }
+
+    private void close(Transport transport) {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection", e);
+        }
+    }
+
+    @lombok.Value
+    private static class PendingMail {
+        MimeMessage message;
+        CompletableFuture<Boolean> result;
+        // Taken by whichever comes first: a sender about to send it, or the caller withdrawing it
+        AtomicBoolean claimed;
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.ekart.notification.service;
+
+import com.ekart.notification.entity.Notification;
+import com.ekart.notification.repository.NotificationArchive;
+import com.ekart.notification.repository.NotificationRepository;
+import com.ekart.notification.repository.RedisDelayQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Moves finished notifications out of Redis: each is queued for archival when it reaches a final
+// status, and drained in batches to the archive before its Redis TTL runs out.
+@Component
+@Slf4j
+public class NotificationArchiver {
+
+    private final RedisDelayQueue queue;
+    private final NotificationRepository notificationRepository;
+    private final NotificationArchive notificationArchive;
+
+    @Value("${notification.archive.sent-retention:7d}")
+    private Duration sentRetention;
+
+    @Value("${notification.archive.failed-retention:30d}")
+    private Duration failedRetention;
+
+    // Redis keeps a record this much longer than its archival time, as a margin for a stalled drain
+    @Value("${notification.archive.expiry-grace:2d}")
+    private Duration expiryGrace;
+
+    @Value("${notification.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${notification.archive.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${notification.archive.claim-timeout:10m}")
+    private Duration claimTimeout;
+
+    public NotificationArchiver(StringRedisTemplate redisTemplate,
+                                NotificationRepository notificationRepository,
+                                NotificationArchive notificationArchive) {
+        this.queue = new RedisDelayQueue(redisTemplate, "notification:archive-queue");
+        this.notificationRepository = notificationRepository;
+        this.notificationArchive = notificationArchive;
+    }
+
+    // Sets the record's TTL and queues it for archival; the caller saves the notification
+    public void scheduleArchival(Notification notification) {
+        Duration retention = notification.getStatus() == Notification.NotificationStatus.FAILED
+                ? failedRetention
+                : sentRetention;
+        notification.setTimeToLive(retention.plus(expiryGrace).toSeconds());
+        queue.schedule(notification.getId(), System.currentTimeMillis() + retention.toMillis());
+    }
+
+    @Scheduled(fixedDelayString = "${notification.archive.drain-interval:60000}")
+    public void drain() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<String> dueIds = queue.claimDue(batchSize, claimTimeout);
+            if (dueIds.isEmpty() || !archive(dueIds) || dueIds.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private boolean archive(List<String> ids) {
+        List<Notification> notifications = new ArrayList<>(ids.size());
+        notificationRepository.findAllById(ids).forEach(notifications::add);
+
+        // Members of a digest that never went out are not queued themselves, so they leave with their digest
+        List<String> undeliveredMembers = notifications.stream()
+                .filter(n -> n.getDigestOf() != null && n.getStatus() == Notification.NotificationStatus.FAILED)
+                .flatMap(n -> n.getDigestOf().stream())
+                .toList();
+        notificationRepository.findAllById(undeliveredMembers).forEach(notifications::add);
+
+        try {
+            notificationArchive.append(notifications);
+        } catch (Exception e) {
+            // Still claimed, so the batch comes due again after the claim timeout
+            log.error("Failed to archive {} notifications", notifications.size(), e);
+            return false;
+        }
+
+        notificationRepository.deleteAll(notifications);
+        queue.removeAll(ids);
+
+        log.info("Archived {} notifications out of Redis", notifications.size());
+        return true;
+    }
+}
@@ -0,0 +1,172 @@
+package com.ekart.notification.service;
+
+import com.ekart.notification.entity.Notification;
+import com.ekart.notification.repository.NotificationRepository;
+import com.ekart.notification.repository.RedisDelayQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// Holds notifications per (user, channel) for a short window and sends whatever arrived in it as one
+// digest, so a burst of order updates costs one email or SMS. Buffers live in Redis, so a user's
+// notifications are coalesced whichever instance consumed them.
+@Component
+@Slf4j
+public class NotificationCoalescer {
+
+    private static final String BUFFER_PREFIX = "notification:digest:";
+    private static final String WINDOW_QUEUE_KEY = "notification:digest-due";
+
+    // Buffers the id; the first id opens the window, and a full buffer closes it early
+    private static final RedisScript<Long> BUFFER = new DefaultRedisScript<>(
+            "local size = redis.call('RPUSH', KEYS[1], ARGV[1]) " +
+            "if size == 1 then redis.call('ZADD', KEYS[2], ARGV[2], ARGV[3]) " +
+            "elseif size >= tonumber(ARGV[4]) then redis.call('ZADD', KEYS[2], 'XX', ARGV[5], ARGV[3]) end " +
+            "return size",
+            Long.class);
+
+    // Drops the ids a flush has handed on and closes the window, or reopens it for ids buffered while
+    // the flush ran, in one step, so a later id always finds a window
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "redis.call('LTRIM', KEYS[1], ARGV[2], -1) " +
+            "local remaining = redis.call('LLEN', KEYS[1]) " +
+            "if remaining == 0 then redis.call('ZREM', KEYS[2], ARGV[1]) " +
+            "else redis.call('ZADD', KEYS[2], ARGV[3], ARGV[1]) end " +
+            "return remaining",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisDelayQueue windows;
+    private final NotificationRepository notificationRepository;
+    private final NotificationDispatcher notificationDispatcher;
+
+    @Value("${notification.digest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.digest.window:2m}")
+    private Duration window;
+
+    @Value("${notification.digest.max-items:10}")
+    private int maxItems;
+
+    @Value("${notification.digest.channels:EMAIL,SMS}")
+    private Set<Notification.NotificationType> channels;
+
+    @Value("${notification.digest.urgent-categories:}")
+    private Set<String> urgentCategories;
+
+    @Value("${notification.digest.batch-size:100}")
+    private int batchSize;
+
+    @Value("${notification.digest.claim-timeout:1m}")
+    private Duration claimTimeout;
+
+    public NotificationCoalescer(StringRedisTemplate redisTemplate,
+                                 NotificationRepository notificationRepository,
+                                 NotificationDispatcher notificationDispatcher) {
+        this.redisTemplate = redisTemplate;
+        this.windows = new RedisDelayQueue(redisTemplate, WINDOW_QUEUE_KEY);
+        this.notificationRepository = notificationRepository;
+        this.notificationDispatcher = notificationDispatcher;
+    }
+
+    public void submit(Notification notification) {
+        if (!enabled || notification.getUserId() == null || !channels.contains(notification.getType())
+                || urgentCategories.contains(notification.getCategory())) {
+            notificationDispatcher.submit(notification);
+            return;
+        }
+
+        String windowId = notification.getUserId() + ":" + notification.getType().name();
+        long now = System.currentTimeMillis();
+        redisTemplate.execute(BUFFER, List.of(BUFFER_PREFIX + windowId, WINDOW_QUEUE_KEY),
+                notification.getId(), String.valueOf(now + window.toMillis()), windowId,
+                String.valueOf(maxItems), String.valueOf(now));
+    }
+
+    @Scheduled(fixedDelayString = "${notification.digest.poll-interval:1000}")
+    public void flushDueWindows() {
+        for (String windowId : windows.claimDue(batchSize, claimTimeout)) {
+            try {
+                flush(windowId);
+            } catch (Exception e) {
+                log.error("Failed to flush digest window: {}", windowId, e);
+            }
+        }
+    }
+
+    // The buffer is only trimmed once its notifications are persisted and submitted; a flush that fails
+    // leaves the window claimed, and it is flushed again when the claim times out
+    private void flush(String windowId) {
+        String bufferKey = BUFFER_PREFIX + windowId;
+        List<String> ids = redisTemplate.opsForList().range(bufferKey, 0, -1);
+        if (ids == null) {
+            return;
+        }
+
+        List<Notification> members = new ArrayList<>(ids.size());
+        notificationRepository.findAllById(ids).forEach(members::add);
+        members.removeIf(member -> member.getStatus() != Notification.NotificationStatus.PENDING);
+        members.sort(Comparator.comparing(Notification::getCreatedAt));
+
+        if (members.size() == 1) {
+            notificationDispatcher.submit(members.get(0));
+        } else if (members.size() > 1) {
+            Notification digest = buildDigest(members);
+            notificationRepository.save(digest);
+            for (Notification member : members) {
+                member.setDigestId(digest.getId());
+                notificationRepository.save(member);
+            }
+
+            log.info("Coalesced {} {} notifications for user: {} into digest: {}",
+                    members.size(), digest.getType(), digest.getUserId(), digest.getId());
+            notificationDispatcher.submit(digest);
+        }
+
+        redisTemplate.execute(RELEASE, List.of(bufferKey, WINDOW_QUEUE_KEY), windowId,
+                String.valueOf(ids.size()), String.valueOf(System.currentTimeMillis() + window.toMillis()));
+    }
+
+    private Notification buildDigest(List<Notification> members) {
+        Notification latest = members.get(members.size() - 1);
+
+        Notification digest = new Notification();
+        // A retried flush rewrites the digest an earlier attempt saved instead of leaving it behind
+        digest.setId(members.stream()
+                .map(Notification::getDigestId)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElseGet(() -> UUID.randomUUID().toString()));
+        digest.setUserId(latest.getUserId());
+        digest.setRecipient(latest.getRecipient());
+        digest.setType(latest.getType());
+        digest.setStatus(Notification.NotificationStatus.PENDING);
+        digest.setCategory("DIGEST");
+        // Carries any transactional member in the transactional lane
+        digest.setPriority(members.stream().anyMatch(member -> member.getPriority() != Notification.Priority.PROMOTIONAL)
+                ? Notification.Priority.TRANSACTIONAL
+                : Notification.Priority.PROMOTIONAL);
+        digest.setSubject("You have " + members.size() + " updates from E-Kart");
+        digest.setMessage(members.stream()
+                .map(member -> member.getSubject() != null
+                        ? member.getSubject() + ": " + member.getMessage()
+                        : member.getMessage())
+                .collect(Collectors.joining("\n")));
+        digest.setDigestOf(members.stream().map(Notification::getId).toList());
+        return digest;
+    }
+}
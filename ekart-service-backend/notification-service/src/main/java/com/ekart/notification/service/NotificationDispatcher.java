@@ -0,0 +1,319 @@
+package com.ekart.notification.service;
+
+import com.ekart.common.events.notification.NotificationEvent;
+import com.ekart.notification.config.DispatchProperties;
+import com.ekart.notification.entity.Notification;
+import com.ekart.notification.repository.NotificationInbox;
+import com.ekart.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Second stage of the notification pipeline: persisted notifications are queued per type and sent by
+// that type's own worker pool, so a slow channel only backs up its own queue. Within a pool, each
+// priority has its own lane and Kafka consumer, so a promotional campaign backs up only its own lane.
+@Component
+@EnableConfigurationProperties(DispatchProperties.class)
+@Slf4j
+public class NotificationDispatcher {
+
+    public static final String LISTENER_ID = "notification-events";
+    public static final String PROMOTIONAL_LISTENER_ID = "notification-events-promotional";
+
+    private final DispatchProperties properties;
+    private final NotificationSender notificationSender;
+    private final SendRateLimiter sendRateLimiter;
+    private final NotificationRepository notificationRepository;
+    private final RetryScheduler retryScheduler;
+    private final NotificationInbox notificationInbox;
+    private final NotificationArchiver notificationArchiver;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Notification.NotificationType, ThreadPoolExecutor> executors =
+            new EnumMap<>(Notification.NotificationType.class);
+
+    private final Map<Notification.NotificationType, PriorityLaneQueue> queues =
+            new EnumMap<>(Notification.NotificationType.class);
+
+    private final Map<Notification.Priority, AtomicBoolean> consumerPaused = new EnumMap<>(Notification.Priority.class);
+
+    private final Map<Notification.Priority, Timer> queueWaitTimers = new EnumMap<>(Notification.Priority.class);
+
+    public NotificationDispatcher(DispatchProperties properties,
+                                  NotificationSender notificationSender,
+                                  SendRateLimiter sendRateLimiter,
+                                  NotificationRepository notificationRepository,
+                                  RetryScheduler retryScheduler,
+                                  NotificationInbox notificationInbox,
+                                  NotificationArchiver notificationArchiver,
+                                  KafkaTemplate<String, Object> kafkaTemplate,
+                                  KafkaListenerEndpointRegistry listenerRegistry,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.notificationSender = notificationSender;
+        this.sendRateLimiter = sendRateLimiter;
+        this.notificationRepository = notificationRepository;
+        this.retryScheduler = retryScheduler;
+        this.notificationInbox = notificationInbox;
+        this.notificationArchiver = notificationArchiver;
+        this.kafkaTemplate = kafkaTemplate;
+        this.listenerRegistry = listenerRegistry;
+        this.meterRegistry = meterRegistry;
+
+        for (Notification.Priority priority : Notification.Priority.values()) {
+            consumerPaused.put(priority, new AtomicBoolean());
+            queueWaitTimers.put(priority, Timer.builder("notification.dispatch.queue.wait")
+                    .tag("priority", priority.name())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
+
+        for (Notification.NotificationType type : Notification.NotificationType.values()) {
+            DispatchProperties.Channel channel = properties.forType(type);
+            PriorityLaneQueue queue = new PriorityLaneQueue(channel.getQueueCapacity(), properties.getLaneWeights());
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(channel.getWorkers(), channel.getWorkers(),
+                    0, TimeUnit.MILLISECONDS, queue,
+                    new CustomizableThreadFactory("notification-" + type.name().toLowerCase() + "-"),
+                    this::waitForCapacity);
+            // tryDispatch queues directly, which relies on the workers already running
+            executor.prestartAllCoreThreads();
+            executors.put(type, executor);
+            queues.put(type, queue);
+
+            for (Notification.Priority priority : Notification.Priority.values()) {
+                Gauge.builder("notification.dispatch.queue.size", queue, q -> q.laneSize(priority))
+                        .tag("type", type.name())
+                        .tag("priority", priority.name())
+                        .register(meterRegistry);
+            }
+            Gauge.builder("notification.dispatch.active", executor, ThreadPoolExecutor::getActiveCount)
+                    .tag("type", type.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    // Queues a persisted notification in its priority lane. Pauses that lane's Kafka consumer when the
+    // lane runs high; the caller blocks for up to the max wait only if it fills up regardless.
+    public void dispatch(Notification notification) {
+        Notification.Priority priority = priorityOf(notification);
+        // The in-memory queue is lost on a crash; the lease brings the notification back through the retry job
+        retryScheduler.lease(notification);
+        executors.get(notification.getType()).execute(newTask(notification, priority));
+        pauseConsumerIfBackedUp(notification.getType(), priority);
+    }
+
+    // Like dispatch, but never blocks; returns false if the lane is full. For the scheduler thread,
+    // which would otherwise stall every other scheduled job while it waits for capacity.
+    public boolean tryDispatch(Notification notification) {
+        Notification.Priority priority = priorityOf(notification);
+        retryScheduler.lease(notification);
+        if (!queues.get(notification.getType()).offer(newTask(notification, priority))) {
+            return false;
+        }
+        pauseConsumerIfBackedUp(notification.getType(), priority);
+        return true;
+    }
+
+    private Runnable newTask(Notification notification, Notification.Priority priority) {
+        long queuedAt = System.nanoTime();
+        return new PriorityLaneQueue.LaneTask(priority, () -> {
+            queueWaitTimers.get(priority).record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            deliver(notification);
+        });
+    }
+
+    private void pauseConsumerIfBackedUp(Notification.NotificationType type, Notification.Priority priority) {
+        if (queues.get(type).laneSize(priority) >= threshold(type, properties.getPauseAt())) {
+            pauseConsumer(priority, type);
+        }
+    }
+
+    // Like dispatch, but a notification that cannot be queued is failed so the retry job picks it up
+    public void submit(Notification notification) {
+        try {
+            dispatch(notification);
+        } catch (RejectedExecutionException e) {
+            log.error("Could not queue notification: {} for dispatch", notification.getId(), e);
+            notification.setStatus(Notification.NotificationStatus.FAILED);
+            notification.setErrorMessage(e.getMessage());
+            retryScheduler.scheduleRetry(notification);
+            notificationRepository.save(notification);
+        }
+    }
+
+    private void deliver(Notification notification) {
+        try {
+            long deferMillis = sendRateLimiter.acquire(notification);
+            boolean sent = deferMillis == 0 && notificationSender.send(notification);
+
+            if (deferMillis > 0) {
+                notification.setStatus(Notification.NotificationStatus.PENDING);
+                notification.setErrorMessage("Rate limited, deferred by " + deferMillis + "ms");
+                retryScheduler.defer(notification, deferMillis);
+                log.info("Notification: {} rate limited, deferred by {}ms", notification.getId(), deferMillis);
+            } else if (sent) {
+                notification.setStatus(Notification.NotificationStatus.SENT);
+                notification.setSentAt(LocalDateTime.now());
+                notification.setErrorMessage(null);
+                notificationArchiver.scheduleArchival(notification);
+                publishSentEvent(notification);
+                if (notification.getDigestOf() != null) {
+                    completeDigestMembers(notification);
+                }
+                log.info("Notification sent successfully to: {}", notification.getRecipient());
+            } else {
+                notification.setStatus(Notification.NotificationStatus.FAILED);
+                notification.setErrorMessage("Failed to send notification");
+                log.error("Failed to send notification to: {}", notification.getRecipient());
+                retryScheduler.scheduleRetry(notification);
+            }
+        } catch (Exception e) {
+            log.error("Error sending notification to: {}", notification.getRecipient(), e);
+            notification.setStatus(Notification.NotificationStatus.FAILED);
+            notification.setErrorMessage(e.getMessage());
+            retryScheduler.scheduleRetry(notification);
+        }
+
+        try {
+            notificationRepository.save(notification);
+            // Only once saved, so a notification whose save failed is still picked up when its lease runs out
+            if (notification.getStatus() == Notification.NotificationStatus.SENT) {
+                retryScheduler.complete(notification.getId());
+            }
+            if (notification.getUserId() != null) {
+                notificationInbox.updateStatus(notification);
+            }
+        } catch (Exception e) {
+            log.error("Failed to save dispatched notification: {}", notification.getId(), e);
+        } finally {
+            recordDelivery(notification);
+            resumeConsumersIfDrained();
+        }
+    }
+
+    // Time from creation to the end of this attempt, per lane; its count is the lane's throughput
+    private void recordDelivery(Notification notification) {
+        Timer.builder("notification.lane.delivery")
+                .tag("priority", priorityOf(notification).name())
+                .tag("status", notification.getStatus().name())
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(Duration.between(notification.getCreatedAt(), LocalDateTime.now()));
+    }
+
+    // The notifications merged into a digest are delivered with it
+    private void completeDigestMembers(Notification digest) {
+        for (Notification member : notificationRepository.findAllById(digest.getDigestOf())) {
+            member.setStatus(Notification.NotificationStatus.SENT);
+            member.setSentAt(digest.getSentAt());
+            notificationArchiver.scheduleArchival(member);
+            notificationRepository.save(member);
+            notificationInbox.updateStatus(member);
+            publishSentEvent(member);
+        }
+    }
+
+    private void publishSentEvent(Notification notification) {
+        if (notification.getSagaId() == null) {
+            return;
+        }
+
+        NotificationEvent sentEvent = new NotificationEvent();
+        sentEvent.setEventId(UUID.randomUUID().toString());
+        sentEvent.setEventType("NOTIFICATION_SENT");
+        sentEvent.setTimestamp(LocalDateTime.now());
+        sentEvent.setSagaId(notification.getSagaId());
+        sentEvent.setUserId(notification.getUserId());
+        sentEvent.setOrderId(notification.getOrderId());
+        sentEvent.setRecipient(notification.getRecipient());
+        sentEvent.setType(notification.getType().name());
+
+        kafkaTemplate.send("notification-sent-topic", sentEvent);
+    }
+
+    private void waitForCapacity(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Notification dispatcher is shut down");
+        }
+        try {
+            Duration maxWait = properties.getMaxWait();
+            if (!executor.getQueue().offer(task, maxWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Dispatch queue still full after " + maxWait.toMillis() + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for dispatch capacity");
+        }
+    }
+
+    private void pauseConsumer(Notification.Priority priority, Notification.NotificationType type) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId(priority));
+        if (container != null && consumerPaused.get(priority).compareAndSet(false, true)) {
+            container.pause();
+            log.warn("{} {} dispatch lane is backed up, pausing its notification consumer", type, priority);
+            // Workers may have drained the lanes before the pause took hold
+            resumeConsumersIfDrained();
+        }
+    }
+
+    private void resumeConsumersIfDrained() {
+        for (Notification.Priority priority : Notification.Priority.values()) {
+            if (consumerPaused.get(priority).get() && lanesDrained(priority)) {
+                MessageListenerContainer container = listenerRegistry.getListenerContainer(listenerId(priority));
+                if (container != null && consumerPaused.get(priority).compareAndSet(true, false)) {
+                    container.resume();
+                    log.info("{} dispatch lanes drained, resuming their notification consumer", priority);
+                }
+            }
+        }
+    }
+
+    private boolean lanesDrained(Notification.Priority priority) {
+        for (Map.Entry<Notification.NotificationType, PriorityLaneQueue> entry : queues.entrySet()) {
+            if (entry.getValue().laneSize(priority) > threshold(entry.getKey(), properties.getResumeAt())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String listenerId(Notification.Priority priority) {
+        return priority == Notification.Priority.PROMOTIONAL ? PROMOTIONAL_LISTENER_ID : LISTENER_ID;
+    }
+
+    private static Notification.Priority priorityOf(Notification notification) {
+        return notification.getPriority() != null ? notification.getPriority() : Notification.Priority.TRANSACTIONAL;
+    }
+
+    private int threshold(Notification.NotificationType type, double fraction) {
+        return (int) (properties.forType(type).getQueueCapacity() * fraction);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executors.values().forEach(ThreadPoolExecutor::shutdown);
+        for (ThreadPoolExecutor executor : executors.values()) {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.ekart.notification.service;
+
+import com.ekart.notification.entity.Notification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// Sends one notification through the provider for its type
+@Component
+@RequiredArgsConstructor
+public class NotificationSender {
+
+    private final EmailService emailService;
+    private final SmsService smsService;
+    private final PushNotificationService pushNotificationService;
+    private final LiveNotificationHub liveNotificationHub;
+
+    public boolean send(Notification notification) {
+        switch (notification.getType()) {
+            case EMAIL:
+                return emailService.sendEmail(notification.getRecipient(), notification.getSubject(), notification.getMessage());
+            case SMS:
+                return smsService.sendSms(notification.getRecipient(), notification.getMessage());
+            case PUSH:
+                return pushNotificationService.sendPushNotification(notification.getUserId(), notification.getSubject(), notification.getMessage());
+            case IN_APP:
+                return liveNotificationHub.publish(notification);
+            default:
+                return false;
+        }
+    }
+}
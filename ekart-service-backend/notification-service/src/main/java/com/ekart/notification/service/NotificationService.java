@@ -1,22 +1,27 @@
 package com.ekart.notification.service;
 
+import com.ekart.common.events.dedup.EventDeduplicator;
 import com.ekart.common.events.notification.NotificationEvent;
+import com.ekart.notification.dto.InboxPageDto;
 import com.ekart.notification.dto.NotificationRequestDto;
 import com.ekart.notification.dto.NotificationResponseDto;
 import com.ekart.notification.entity.Notification;
+import com.ekart.notification.repository.NotificationArchive;
+import com.ekart.notification.repository.NotificationInbox;
 import com.ekart.notification.repository.NotificationRepository;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -25,12 +30,25 @@ import java.util.UUID;
 public class NotificationService {
 
     private final NotificationRepository notificationRepository;
-    private final EmailService emailService;
-    private final SmsService smsService;
-    private final PushNotificationService pushNotificationService;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationCoalescer notificationCoalescer;
+    private final RetryScheduler retryScheduler;
+    private final NotificationInbox notificationInbox;
+    private final NotificationArchive notificationArchive;
+    private final EventDeduplicator eventDeduplicator;
+    
+    @Value("${notification.retry.batch-size:100}")
+    private int retryBatchSize;
+    
+    @Value("${notification.inbox.max-page-size:100}")
+    private int maxPageSize;
+    
+    @Value("${notification.archive.max-search-days:31}")
+    private int maxArchiveSearchDays;
+    
+    @Value("${notification.archive.max-search-results:500}")
+    private int maxArchiveSearchResults;
 
-    @Async
     @CircuitBreaker(name = "notification-service", fallbackMethod = "sendNotificationFallback")
     @Retry(name = "notification-service")
     public NotificationResponseDto sendNotification(NotificationRequestDto requestDto) {
@@ -46,61 +64,43 @@ public class NotificationService {
         notification.setType(requestDto.getType());
         notification.setStatus(Notification.NotificationStatus.PENDING);
         notification.setOrderId(requestDto.getOrderId());
+        notification.setCategory(requestDto.getCategory());
+        if (requestDto.getPriority() != null) {
+            notification.setPriority(requestDto.getPriority());
+        }
         
         notification = notificationRepository.save(notification);
+        addToInbox(notification);
         
-        try {
-            // Send notification based on type
-            boolean sent = false;
-            switch (requestDto.getType()) {
-                case EMAIL:
-                    sent = emailService.sendEmail(requestDto.getRecipient(), requestDto.getSubject(), requestDto.getMessage());
-                    break;
-                case SMS:
-                    sent = smsService.sendSms(requestDto.getRecipient(), requestDto.getMessage());
-                    break;
-                case PUSH:
-                    sent = pushNotificationService.sendPushNotification(requestDto.getUserId(), requestDto.getSubject(), requestDto.getMessage());
-                    break;
-                case IN_APP:
-                    sent = true; // In-app notifications are stored in Redis
-                    break;
-            }
-            
-            if (sent) {
-                notification.setStatus(Notification.NotificationStatus.SENT);
-                notification.setSentAt(LocalDateTime.now());
-                log.info("Notification sent successfully to: {}", requestDto.getRecipient());
-            } else {
-                notification.setStatus(Notification.NotificationStatus.FAILED);
-                notification.setErrorMessage("Failed to send notification");
-                log.error("Failed to send notification to: {}", requestDto.getRecipient());
-            }
-            
-        } catch (Exception e) {
-            log.error("Error sending notification to: {}", requestDto.getRecipient(), e);
-            notification.setStatus(Notification.NotificationStatus.FAILED);
-            notification.setErrorMessage(e.getMessage());
-        }
+        // Sent by the channel's worker pool, possibly within a digest; the caller gets the PENDING record back
+        notificationCoalescer.submit(notification);
         
-        notification = notificationRepository.save(notification);
         return convertToDto(notification);
     }
 
-    @KafkaListener(topics = "notification-topic")
+    // Each priority has its own topic and consumer, so a promotional backlog in Kafka never sits in
+    // front of transactional events
+    @KafkaListener(id = NotificationDispatcher.LISTENER_ID, idIsGroup = false, topics = "notification-topic",
+            clientIdPrefix = "notification-transactional")
     public void handleNotificationEvent(NotificationEvent event) {
-        log.info("Received notification event for user: {} with type: {}", event.getUserId(), event.getType());
+        processNotificationEvent(event, Notification.Priority.TRANSACTIONAL);
+    }
+
+    @KafkaListener(id = NotificationDispatcher.PROMOTIONAL_LISTENER_ID, idIsGroup = false,
+            topics = "notification-promotional-topic", clientIdPrefix = "notification-promotional")
+    public void handlePromotionalNotificationEvent(NotificationEvent event) {
+        processNotificationEvent(event, Notification.Priority.PROMOTIONAL);
+    }
+
+    private void processNotificationEvent(NotificationEvent event, Notification.Priority topicPriority) {
+        log.info("Received {} notification event for user: {} with type: {}",
+                topicPriority, event.getUserId(), event.getType());
+        
+        if (!eventDeduplicator.claim("notification-service.notification", event)) {
+            return;
+        }
         
         try {
-            // Create notification request
-            NotificationRequestDto requestDto = new NotificationRequestDto();
-            requestDto.setUserId(event.getUserId());
-            requestDto.setRecipient(event.getRecipient());
-            requestDto.setSubject(event.getSubject());
-            requestDto.setMessage(event.getMessage());
-            requestDto.setType(Notification.NotificationType.valueOf(event.getType()));
-            requestDto.setOrderId(event.getOrderId());
-            
             // Create notification record
             Notification notification = new Notification();
             notification.setId(UUID.randomUUID().toString());
@@ -112,66 +112,54 @@ public class NotificationService {
             notification.setStatus(Notification.NotificationStatus.PENDING);
             notification.setOrderId(event.getOrderId());
             notification.setSagaId(event.getSagaId());
+            notification.setCategory(event.getEventType());
+            notification.setPriority(event.getPriority() != null
+                    ? Notification.Priority.valueOf(event.getPriority())
+                    : topicPriority);
             
             notification = notificationRepository.save(notification);
+            addToInbox(notification);
             
-            // Send notification
-            boolean sent = false;
-            switch (notification.getType()) {
-                case EMAIL:
-                    sent = emailService.sendEmail(notification.getRecipient(), notification.getSubject(), notification.getMessage());
-                    break;
-                case SMS:
-                    sent = smsService.sendSms(notification.getRecipient(), notification.getMessage());
-                    break;
-                case PUSH:
-                    sent = pushNotificationService.sendPushNotification(notification.getUserId(), notification.getSubject(), notification.getMessage());
-                    break;
-                case IN_APP:
-                    sent = true; // In-app notifications are stored in Redis
-                    break;
-            }
-            
-            if (sent) {
-                notification.setStatus(Notification.NotificationStatus.SENT);
-                notification.setSentAt(LocalDateTime.now());
-                
-                // Publish notification sent event for saga
-                if (notification.getSagaId() != null) {
-                    NotificationEvent sentEvent = new NotificationEvent();
-                    sentEvent.setEventId(UUID.randomUUID().toString());
-                    sentEvent.setEventType("NOTIFICATION_SENT");
-                    sentEvent.setTimestamp(LocalDateTime.now());
-                    sentEvent.setSagaId(notification.getSagaId());
-                    sentEvent.setUserId(notification.getUserId());
-                    sentEvent.setOrderId(notification.getOrderId());
-                    sentEvent.setRecipient(notification.getRecipient());
-                    sentEvent.setType(notification.getType().name());
-                    
-                    kafkaTemplate.send("notification-sent-topic", sentEvent);
-                }
-                
-                log.info("Notification sent successfully to: {}", notification.getRecipient());
-            } else {
-                notification.setStatus(Notification.NotificationStatus.FAILED);
-                notification.setErrorMessage("Failed to send notification");
-                log.error("Failed to send notification to: {}", notification.getRecipient());
-            }
-            
-            notificationRepository.save(notification);
+            // Sending happens on the channel's worker pool, off the consumer thread
+            notificationCoalescer.submit(notification);
             
-        } catch (Exception e) {
+        } catch (RuntimeException e) {
+            // Released and rethrown, so the listener's error handler redelivers the event
             log.error("Error processing notification event", e);
+            eventDeduplicator.release("notification-service.notification", event);
+            throw e;
+        }
+    }
+
+    private void addToInbox(Notification notification) {
+        if (notification.getUserId() == null) {
+            return;
+        }
+        try {
+            notificationInbox.add(notification);
+        } catch (Exception e) {
+            log.error("Failed to add notification: {} to inbox of user: {}", notification.getId(), notification.getUserId(), e);
         }
     }
 
     @CircuitBreaker(name = "notification-service", fallbackMethod = "getUserNotificationsFallback")
     @Retry(name = "notification-service")
-    public List<NotificationResponseDto> getUserNotifications(String userId) {
+    public InboxPageDto getUserNotifications(String userId, String cursor, int size) {
         log.info("Retrieving notifications for user: {}", userId);
         
-        List<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        return notifications.stream().map(this::convertToDto).toList();
+        // Users with history from before the inbox existed are loaded into it once
+        if (cursor == null && !notificationInbox.exists(userId)) {
+            List<Notification> history = notificationRepository.findByUserId(userId).stream()
+                    .sorted(Comparator.comparing(Notification::getCreatedAt))
+                    .toList();
+            notificationInbox.addAll(history);
+        }
+        
+        NotificationInbox.Page page = notificationInbox.read(userId, cursor, Math.max(1, Math.min(size, maxPageSize)));
+        List<NotificationResponseDto> notifications = page.getEntries().stream()
+                .map(entry -> convertToDto(userId, entry))
+                .toList();
+        return new InboxPageDto(notifications, page.getNextCursor());
     }
 
     @CircuitBreaker(name = "notification-service", fallbackMethod = "getNotificationByIdFallback")
@@ -179,10 +167,31 @@ public class NotificationService {
     public NotificationResponseDto getNotificationById(String notificationId) {
         log.info("Retrieving notification with ID: {}", notificationId);
         
-        Notification notification = notificationRepository.findById(notificationId)
+        Optional<Notification> notification = notificationRepository.findById(notificationId);
+        if (notification.isPresent()) {
+            return convertToDto(notification.get());
+        }
+        
+        // Sent notifications expire from Redis long before their inbox entry does
+        NotificationInbox.Entry entry = notificationInbox.find(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found with ID: " + notificationId));
+        return convertToDto(entry.getUserId(), entry);
+    }
+
+    // Support lookup of notifications that have been archived out of Redis
+    public List<NotificationResponseDto> searchArchive(String userId, String orderId, LocalDate from, LocalDate to) {
+        log.info("Searching notification archive for user: {} order: {} from {} to {}", userId, orderId, from, to);
         
-        return convertToDto(notification);
+        if (userId == null && orderId == null) {
+            throw new RuntimeException("Archive search needs a userId or an orderId");
+        }
+        if (from.isAfter(to) || from.plusDays(maxArchiveSearchDays).isBefore(to)) {
+            throw new RuntimeException("Archive search range must span at most " + maxArchiveSearchDays + " days");
+        }
+        
+        return notificationArchive.search(userId, orderId, from, to, maxArchiveSearchResults).stream()
+                .map(this::convertToDto)
+                .toList();
     }
 
     @CircuitBreaker(name = "notification-service", fallbackMethod = "markAsReadFallback")
@@ -190,61 +199,77 @@ public class NotificationService {
     public NotificationResponseDto markAsRead(String notificationId) {
         log.info("Marking notification as read: {}", notificationId);
         
-        Notification notification = notificationRepository.findById(notificationId)
+        Notification notification = notificationRepository.findById(notificationId).orElse(null);
+        if (notification == null) {
+            return markInboxEntryAsRead(notificationId);
+        }
+        
+        // Pending and failed notifications are still being retried, so only a sent one counts as delivered
+        boolean sent = notification.getStatus() == Notification.NotificationStatus.SENT;
+        if (sent) {
+            notification.setStatus(Notification.NotificationStatus.DELIVERED);
+        }
+        if (notification.getUserId() != null) {
+            // Updates the status in place, so a concurrent dispatch of the record is not overwritten
+            notificationInbox.markRead(notification.getUserId(), notificationId);
+        } else if (sent) {
+            notification = notificationRepository.save(notification);
+        }
+        
+        NotificationResponseDto dto = convertToDto(notification);
+        dto.setRead(true);
+        return dto;
+    }
+
+    // The record has expired after its archival retention, but the inbox still lists it
+    private NotificationResponseDto markInboxEntryAsRead(String notificationId) {
+        NotificationInbox.Entry entry = notificationInbox.find(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found with ID: " + notificationId));
+        if (entry.getUserId() == null) {
+            return convertToDto(null, entry);
+        }
         
-        notification.setStatus(Notification.NotificationStatus.DELIVERED);
-        notification = notificationRepository.save(notification);
+        notificationInbox.markRead(entry.getUserId(), notificationId);
+        NotificationResponseDto dto = convertToDto(entry.getUserId(), notificationInbox.find(notificationId).orElse(entry));
+        dto.setRead(true);
+        return dto;
+    }
+
+    @CircuitBreaker(name = "notification-service", fallbackMethod = "markAllAsReadFallback")
+    @Retry(name = "notification-service")
+    public long markAllAsRead(String userId) {
+        log.info("Marking all notifications as read for user: {}", userId);
         
-        return convertToDto(notification);
+        return notificationInbox.markAllRead(userId);
+    }
+
+    // A single counter read; notifications only count once they are in the user's inbox
+    public long getUnreadCount(String userId) {
+        return notificationInbox.unreadCount(userId);
     }
 
-    @Scheduled(fixedDelay = 300000) // Every 5 minutes
+    // Hands due retries to the dispatcher; claimed ids stay in the retry queue until the attempt settles
+    @Scheduled(fixedDelayString = "${notification.retry.poll-interval:1000}")
     public void retryFailedNotifications() {
-        log.info("Retrying failed notifications...");
+        List<String> dueIds = retryScheduler.claimDue(retryBatchSize);
+        if (dueIds.isEmpty()) {
+            return;
+        }
         
-        List<Notification> failedNotifications = notificationRepository
-                .findByStatusAndRetryCountLessThan(Notification.NotificationStatus.FAILED, 3);
+        log.info("Retrying {} failed notifications", dueIds.size());
         
-        for (Notification notification : failedNotifications) {
-            try {
-                log.info("Retrying notification: {}", notification.getId());
-                
-                boolean sent = false;
-                switch (notification.getType()) {
-                    case EMAIL:
-                        sent = emailService.sendEmail(notification.getRecipient(), notification.getSubject(), notification.getMessage());
-                        break;
-                    case SMS:
-                        sent = smsService.sendSms(notification.getRecipient(), notification.getMessage());
-                        break;
-                    case PUSH:
-                        sent = pushNotificationService.sendPushNotification(notification.getUserId(), notification.getSubject(), notification.getMessage());
-                        break;
-                    case IN_APP:
-                        sent = true;
-                        break;
-                }
-                
-                notification.setRetryCount(notification.getRetryCount() + 1);
-                
-                if (sent) {
-                    notification.setStatus(Notification.NotificationStatus.SENT);
-                    notification.setSentAt(LocalDateTime.now());
-                    notification.setErrorMessage(null);
-                    log.info("Notification retry successful: {}", notification.getId());
-                } else {
-                    notification.setErrorMessage("Retry failed");
-                    log.error("Notification retry failed: {}", notification.getId());
-                }
-                
-                notificationRepository.save(notification);
-                
-            } catch (Exception e) {
-                log.error("Error retrying notification: {}", notification.getId(), e);
-                notification.setRetryCount(notification.getRetryCount() + 1);
-                notification.setErrorMessage(e.getMessage());
-                notificationRepository.save(notification);
+        for (Notification notification : notificationRepository.findAllById(dueIds)) {
+            // PENDING ones were deferred by the rate limiter or lost from a dispatch queue; anything else
+            // has been sent meanwhile
+            if (notification.getStatus() != Notification.NotificationStatus.FAILED
+                    && notification.getStatus() != Notification.NotificationStatus.PENDING) {
+                retryScheduler.complete(notification.getId());
+                continue;
+            }
+            log.info("Retrying notification: {}", notification.getId());
+            if (!notificationDispatcher.tryDispatch(notification)) {
+                // Left leased; it comes due again once the lease runs out
+                log.warn("Dispatch queue full, deferring retry of notification: {}", notification.getId());
             }
         }
     }
@@ -259,10 +284,27 @@ public class NotificationService {
         dto.setType(notification.getType());
         dto.setStatus(notification.getStatus());
         dto.setOrderId(notification.getOrderId());
+        dto.setCategory(notification.getCategory());
+        dto.setPriority(notification.getPriority());
         dto.setCreatedAt(notification.getCreatedAt());
         dto.setSentAt(notification.getSentAt());
         dto.setErrorMessage(notification.getErrorMessage());
         dto.setRetryCount(notification.getRetryCount());
+        dto.setRead(notification.getStatus() == Notification.NotificationStatus.DELIVERED);
+        return dto;
+    }
+
+    private NotificationResponseDto convertToDto(String userId, NotificationInbox.Entry entry) {
+        NotificationResponseDto dto = new NotificationResponseDto();
+        dto.setId(entry.getId());
+        dto.setUserId(userId);
+        dto.setSubject(entry.getSubject());
+        dto.setMessage(entry.getMessage());
+        dto.setType(entry.getType());
+        dto.setStatus(entry.getStatus());
+        dto.setOrderId(entry.getOrderId());
+        dto.setCreatedAt(entry.getCreatedAt());
+        dto.setRead(entry.isRead());
         return dto;
     }
 
@@ -272,7 +314,7 @@ public class NotificationService {
         throw new RuntimeException("Notification service is temporarily unavailable");
     }
 
-    public List<NotificationResponseDto> getUserNotificationsFallback(String userId, Exception ex) {
+    public InboxPageDto getUserNotificationsFallback(String userId, String cursor, int size, Exception ex) {
         log.error("Circuit breaker activated for get user notifications: {}", ex.getMessage());
         throw new RuntimeException("Notification retrieval service is temporarily unavailable");
     }
@@ -286,4 +328,9 @@ public class NotificationService {
         log.error("Circuit breaker activated for mark as read: {}", ex.getMessage());
         throw new RuntimeException("Notification update service is temporarily unavailable");
     }
+
+    public long markAllAsReadFallback(String userId, Exception ex) {
+        log.error("Circuit breaker activated for mark all as read: {}", ex.getMessage());
+        throw new RuntimeException("Notification update service is temporarily unavailable");
+    }
 }
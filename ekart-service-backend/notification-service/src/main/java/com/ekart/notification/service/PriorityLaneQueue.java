@@ -0,0 +1,304 @@
+package com.ekart.notification.service;
+
+import com.ekart.notification.entity.Notification;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Work queue of a dispatch pool with one bounded lane per priority. Workers take from the non-empty
+// lanes by smooth weighted round robin, so a backed-up promotional lane only gets its weighted share
+// of the workers while transactional work is waiting, and all of them when it is not.
+public class PriorityLaneQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private static final Notification.Priority[] PRIORITIES = Notification.Priority.values();
+
+    private final List<ArrayDeque<Runnable>> lanes = new ArrayList<>(PRIORITIES.length);
+    private final int[] weights = new int[PRIORITIES.length];
+    private final int[] credits = new int[PRIORITIES.length];
+    private final int laneCapacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int count;
+
+    public PriorityLaneQueue(int laneCapacity, Map<Notification.Priority, Integer> weights) {
+        this.laneCapacity = laneCapacity;
+        for (Notification.Priority priority : PRIORITIES) {
+            lanes.add(new ArrayDeque<>());
+            this.weights[priority.ordinal()] = Math.max(1, weights.getOrDefault(priority, 1));
+        }
+    }
+
+    public int laneSize(Notification.Priority priority) {
+        lock.lock();
+        try {
+            return lanes.get(priority.ordinal()).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLaneCapacity() {
+        return laneCapacity;
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        lock.lock();
+        try {
+            ArrayDeque<Runnable> lane = laneOf(task);
+            if (lane.size() >= laneCapacity) {
+                return false;
+            }
+            enqueue(lane, task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            ArrayDeque<Runnable> lane = laneOf(task);
+            while (lane.size() >= laneCapacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(lane, task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(Runnable task) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            ArrayDeque<Runnable> lane = laneOf(task);
+            while (lane.size() >= laneCapacity) {
+                notFull.await();
+            }
+            enqueue(lane, task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return count > 0 ? dequeue() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The head of the highest priority non-empty lane, which is not necessarily the next one taken
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            for (ArrayDeque<Runnable> lane : lanes) {
+                if (!lane.isEmpty()) {
+                    return lane.peekFirst();
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        lock.lock();
+        try {
+            return laneCapacity * lanes.size() - count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(Object task) {
+        lock.lock();
+        try {
+            for (ArrayDeque<Runnable> lane : lanes) {
+                if (lane.remove(task)) {
+                    count--;
+                    notFull.signalAll();
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> target, int maxElements) {
+        lock.lock();
+        try {
+            int drained = 0;
+            while (count > 0 && drained < maxElements) {
+                target.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Iterates over a snapshot; remove() takes the element out of the live queue
+    @Override
+    public Iterator<Runnable> iterator() {
+        List<Runnable> snapshot = new ArrayList<>();
+        lock.lock();
+        try {
+            lanes.forEach(snapshot::addAll);
+        } finally {
+            lock.unlock();
+        }
+
+        Iterator<Runnable> delegate = snapshot.iterator();
+        return new Iterator<>() {
+            private Runnable last;
+
+            @Override
+            public boolean hasNext() {
+                return delegate.hasNext();
+            }
+
+            @Override
+            public Runnable next() {
+                last = delegate.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                PriorityLaneQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    private ArrayDeque<Runnable> laneOf(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        Notification.Priority priority = task instanceof LaneTask laneTask
+                ? laneTask.getPriority()
+                : Notification.Priority.TRANSACTIONAL;
+        return lanes.get(priority.ordinal());
+    }
+
+    private void enqueue(ArrayDeque<Runnable> lane, Runnable task) {
+        lane.addLast(task);
+        count++;
+        notEmpty.signal();
+    }
+
+    // Every non-empty lane earns its weight in credit, the richest lane is served and pays back the
+    // total, which interleaves the lanes in proportion to their weights
+    private Runnable dequeue() {
+        int chosen = -1;
+        int total = 0;
+        for (int i = 0; i < lanes.size(); i++) {
+            if (lanes.get(i).isEmpty()) {
+                continue;
+            }
+            credits[i] += weights[i];
+            total += weights[i];
+            if (chosen < 0 || credits[i] > credits[chosen]) {
+                chosen = i;
+            }
+        }
+        if (chosen < 0) {
+            throw new NoSuchElementException();
+        }
+        credits[chosen] -= total;
+        count--;
+        notFull.signalAll();
+        return lanes.get(chosen).pollFirst();
+    }
+
+    @lombok.Value
+    public static class LaneTask implements Runnable {
+        Notification.Priority priority;
+        Runnable task;
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.ekart.notification.service;
+
+import com.ekart.notification.entity.Notification;
+import com.ekart.notification.repository.RedisDelayQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Schedules retries of failed notifications on a Redis delay queue scored by next-attempt time,
+// so instances share retries without scanning the notifications keyspace.
+@Component
+@Slf4j
+public class RetryScheduler {
+
+    private final RedisDelayQueue queue;
+    private final NotificationArchiver notificationArchiver;
+
+    @Value("${notification.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notification.retry.base-delay:5s}")
+    private Duration baseDelay;
+
+    @Value("${notification.retry.max-delay:30m}")
+    private Duration maxDelay;
+
+    @Value("${notification.retry.claim-timeout:5m}")
+    private Duration claimTimeout;
+
+    // How long a dispatched notification may sit in an in-memory queue before the retry job takes it over
+    @Value("${notification.retry.dispatch-lease:10m}")
+    private Duration dispatchLease;
+
+    public RetryScheduler(StringRedisTemplate redisTemplate, NotificationArchiver notificationArchiver) {
+        this.queue = new RedisDelayQueue(redisTemplate, "notification:retry-queue");
+        this.notificationArchiver = notificationArchiver;
+    }
+
+    // Schedules the next attempt with exponential backoff, or gives up once attempts are used up.
+    // Increments retryCount; the caller saves the notification.
+    public void scheduleRetry(Notification notification) {
+        if (notification.getRetryCount() >= maxAttempts) {
+            queue.remove(notification.getId());
+            notificationArchiver.scheduleArchival(notification);
+            log.error("Notification: {} failed after {} retries, giving up", notification.getId(), notification.getRetryCount());
+            return;
+        }
+
+        long delayMillis = backoffMillis(notification.getRetryCount());
+        notification.setRetryCount(notification.getRetryCount() + 1);
+        queue.schedule(notification.getId(), System.currentTimeMillis() + delayMillis);
+
+        log.info("Notification: {} scheduled for retry {} in {}ms",
+                notification.getId(), notification.getRetryCount(), delayMillis);
+    }
+
+    // Keeps the notification on the queue while it waits to be sent; settling it replaces or removes the entry
+    public void lease(Notification notification) {
+        queue.schedule(notification.getId(), System.currentTimeMillis() + dispatchLease.toMillis());
+    }
+
+    // Puts a rate-limited notification back on the queue without counting it as an attempt
+    public void defer(Notification notification, long delayMillis) {
+        queue.schedule(notification.getId(), System.currentTimeMillis() + delayMillis);
+    }
+
+    public void complete(String notificationId) {
+        queue.remove(notificationId);
+    }
+
+    public List<String> claimDue(int limit) {
+        return queue.claimDue(limit, claimTimeout);
+    }
+
+    // Equal jitter: half the exponential delay is fixed, the other half random, so retries
+    // of notifications that failed together spread out without collapsing to zero delay
+    private long backoffMillis(int retryCount) {
+        long exponential = baseDelay.toMillis() << Math.min(retryCount, 20);
+        long capped = Math.min(exponential, maxDelay.toMillis());
+        long half = capped / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+}
@@ -0,0 +1,122 @@
+package com.ekart.notification.service;
+
+import com.ekart.notification.config.RateLimitProperties;
+import com.ekart.notification.entity.Notification;
+import com.ekart.notification.repository.RedisTokenBuckets;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Throttles sends per provider and per recipient with token buckets, held in memory or, for limits
+// marked distributed, in Redis. A send must get a token from both; an over-limit send is deferred.
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+@Slf4j
+public class SendRateLimiter {
+
+    private final RateLimitProperties properties;
+    private final RedisTokenBuckets redisTokenBuckets;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Notification.NotificationType, TokenBucket> providerBuckets =
+            new EnumMap<>(Notification.NotificationType.class);
+
+    // Type and recipient -> bucket
+    private final Map<String, TokenBucket> recipientBuckets = new ConcurrentHashMap<>();
+
+    public SendRateLimiter(RateLimitProperties properties, RedisTokenBuckets redisTokenBuckets,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redisTokenBuckets = redisTokenBuckets;
+        this.meterRegistry = meterRegistry;
+        properties.getProviders().forEach((type, limit) ->
+                providerBuckets.put(type, new TokenBucket(limit.getPermitsPerSecond(), limit.getBurst())));
+    }
+
+    // Returns 0 when the notification may be sent now, otherwise how many milliseconds to defer it
+    public long acquire(Notification notification) {
+        if (!properties.isEnabled()) {
+            return 0;
+        }
+        Notification.NotificationType type = notification.getType();
+        String recipient = notification.getRecipient() != null ? notification.getRecipient() : notification.getUserId();
+        String recipientKey = type.name() + ":" + recipient;
+
+        // The recipient is checked first: its buckets are the more likely to be empty, and usually local
+        RateLimitProperties.Limit recipientLimit = recipient != null ? properties.getRecipients().get(type) : null;
+        if (recipientLimit != null) {
+            long wait = tryAcquire(recipientLimit, 1.0, "recipient:" + recipientKey,
+                    () -> recipientBuckets.computeIfAbsent(recipientKey,
+                            key -> new TokenBucket(recipientLimit.getPermitsPerSecond(), recipientLimit.getBurst())));
+            if (wait > 0) {
+                return deferral(notification, "recipient", wait);
+            }
+        }
+
+        RateLimitProperties.Limit providerLimit = properties.getProviders().get(type);
+        if (providerLimit != null) {
+            // Promotional sends leave part of the provider quota to transactional ones during a campaign
+            double burstShare = notification.getPriority() == Notification.Priority.PROMOTIONAL
+                    ? providerLimit.getPromotionalShare()
+                    : 1.0;
+            long wait = tryAcquire(providerLimit, burstShare, "provider:" + type.name(), () -> providerBuckets.get(type));
+            if (wait > 0) {
+                if (recipientLimit != null) {
+                    refund(recipientLimit, "recipient:" + recipientKey, recipientBuckets.get(recipientKey));
+                }
+                return deferral(notification, "provider", wait);
+            }
+        }
+        return 0;
+    }
+
+    // Full buckets hold no state worth keeping, so memory stays proportional to recently active recipients
+    @Scheduled(fixedDelayString = "${notification.rate-limit.sweep-interval:60000}")
+    public void evictFull() {
+        recipientBuckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    private long tryAcquire(RateLimitProperties.Limit limit, double burstShare, String redisKey,
+                            Supplier<TokenBucket> localBucket) {
+        if (!limit.isDistributed()) {
+            return localBucket.get().tryAcquire(burstShare);
+        }
+        try {
+            return redisTokenBuckets.tryAcquire(redisKey, limit.getPermitsPerSecond(),
+                    Math.max(1.0, limit.getBurst() * burstShare));
+        } catch (Exception e) {
+            // Fails open: a Redis outage should not hold up every send
+            log.warn("Rate limit bucket {} unavailable, allowing send: {}", redisKey, e.getMessage());
+            return 0;
+        }
+    }
+
+    private void refund(RateLimitProperties.Limit limit, String redisKey, TokenBucket localBucket) {
+        if (!limit.isDistributed()) {
+            if (localBucket != null) {
+                localBucket.refund();
+            }
+            return;
+        }
+        try {
+            redisTokenBuckets.refund(redisKey, limit.getPermitsPerSecond());
+        } catch (Exception e) {
+            log.warn("Failed to refund rate limit bucket {}: {}", redisKey, e.getMessage());
+        }
+    }
+
+    private long deferral(Notification notification, String scope, long waitMillis) {
+        meterRegistry.counter("notification.rate.limited", "type", notification.getType().name(), "scope", scope,
+                "priority", String.valueOf(notification.getPriority())).increment();
+        long jitter = properties.getDeferJitter().toMillis();
+        return waitMillis + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+    }
+}
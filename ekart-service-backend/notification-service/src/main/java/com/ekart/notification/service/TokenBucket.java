@@ -0,0 +1,53 @@
+package com.ekart.notification.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-memory token bucket kept as a single theoretical arrival time (the GCRA form), so acquiring
+// is one compare-and-set with no lock and no refill thread.
+public class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    // The time at which the bucket is full again; any time up to now means it is full already
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = intervalNanos * burst;
+        this.fullAt = new AtomicLong(System.nanoTime());
+    }
+
+    // Takes a token and returns 0, or returns how many milliseconds until one is available
+    public long tryAcquire() {
+        return tryAcquire(1.0);
+    }
+
+    // As tryAcquire(), but only while more than (1 - burstShare) of the burst is left in the bucket.
+    // At least one token of the burst is always usable.
+    public long tryAcquire(double burstShare) {
+        long usableBurstNanos = Math.max(intervalNanos, (long) (burstNanos * burstShare));
+        long now = System.nanoTime();
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long waitNanos = next - now - usableBurstNanos;
+            if (waitNanos > 0) {
+                return TimeUnit.NANOSECONDS.toMillis(waitNanos) + 1;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Returns a token taken by a send that did not go ahead
+    public void refund() {
+        fullAt.addAndGet(-intervalNanos);
+    }
+
+    public boolean isFull() {
+        return fullAt.get() - System.nanoTime() <= 0;
+    }
+}
@@ -0,0 +1,117 @@
+package com.ekart.notification.service;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Emails per second through MailDispatchEngine against an in-process GreenMail SMTP server, next to
+// the same load sent with a new connection per message. Run the main method from the IDE, or with
+// mvn -pl notification-service test-compile exec:java -Dexec.classpathScope=test
+//     -Dexec.mainClass=com.ekart.notification.service.MailDispatchBenchmark -Dexec.args="5000 32 4"
+// Arguments: messages, caller threads, SMTP connections.
+public class MailDispatchBenchmark {
+
+    private static final int SMTP_PORT = 3025;
+
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int callers = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        GreenMail greenMail = new GreenMail(new ServerSetup(SMTP_PORT, "localhost", ServerSetup.PROTOCOL_SMTP));
+        greenMail.start();
+        try {
+            JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+            mailSender.setHost("localhost");
+            mailSender.setPort(SMTP_PORT);
+
+            Sender direct = message -> {
+                mailSender.send(message);
+                return true;
+            };
+            // Warms up the JIT and the SMTP server before either run is measured
+            run("warm-up", messages / 10, callers, direct, mailSender, greenMail);
+            run("connection per message", messages, callers, direct, mailSender, greenMail);
+
+            MailDispatchEngine engine = new MailDispatchEngine(mailSender, new SimpleMeterRegistry());
+            set(engine, "connections", connections);
+            set(engine, "maxMessagesPerConnection", 100);
+            set(engine, "idleTimeout", Duration.ofSeconds(60));
+            set(engine, "queueCapacity", 1000);
+            set(engine, "sendTimeout", Duration.ofSeconds(30));
+            engine.start();
+            try {
+                run("dispatch engine, " + connections + " connections", messages, callers,
+                        engine::send, mailSender, greenMail);
+            } finally {
+                engine.stop();
+            }
+        } finally {
+            greenMail.stop();
+        }
+    }
+
+    private static void run(String name, int messages, int callers, Sender sender,
+                            JavaMailSenderImpl mailSender, GreenMail greenMail) throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+        AtomicInteger failed = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            int index = i;
+            pool.execute(() -> {
+                try {
+                    if (!sender.send(message(mailSender, index))) {
+                        failed.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(10, TimeUnit.MINUTES)) {
+            pool.shutdownNow();
+            throw new IllegalStateException(name + " did not finish in time");
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        int received = greenMail.getReceivedMessages().length;
+        System.out.printf("%-40s %6d sent %4d failed %6d received %10.1f emails/s%n",
+                name, messages - failed.get(), failed.get(), received,
+                messages * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+    }
+
+    private static MimeMessage message(JavaMailSenderImpl mailSender, int index) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom("noreply@ekart.local");
+        helper.setTo("user" + (index % 100) + "@ekart.local");
+        helper.setSubject("Order confirmation " + index);
+        helper.setText("<p>Your order " + index + " has been confirmed.</p>", true);
+        return message;
+    }
+
+    // The engine's settings are injected with @Value, which needs a Spring context otherwise
+    private static void set(Object target, String field, Object value) throws ReflectiveOperationException {
+        Field declared = target.getClass().getDeclaredField(field);
+        declared.setAccessible(true);
+        declared.set(target, value);
+    }
+
+    @FunctionalInterface
+    private interface Sender {
+        boolean send(MimeMessage message) throws Exception;
+    }
+}
@@ -28,6 +28,9 @@ public class Saga {
     
     private String currentStep;
     
+    // Payment requests sent for the order, including retries of ones the payment service turned away
+    private int paymentAttempts;
+    
     private LocalDateTime createdAt = LocalDateTime.now();
     
     private LocalDateTime updatedAt = LocalDateTime.now();
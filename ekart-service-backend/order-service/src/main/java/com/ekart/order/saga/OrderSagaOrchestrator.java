@@ -2,6 +2,8 @@ package com.ekart.order.saga;
 
 import com.ekart.common.events.order.OrderCreatedEvent;
 import com.ekart.common.events.payment.PaymentProcessedEvent;
+import com.ekart.common.events.payment.PaymentRefundRequestedEvent;
+import com.ekart.common.events.payment.PaymentRefundedEvent;
 import com.ekart.common.events.notification.NotificationEvent;
 import com.ekart.order.entity.Order;
 import com.ekart.order.entity.Saga;
@@ -9,6 +11,7 @@ import com.ekart.order.repository.OrderRepository;
 import com.ekart.order.repository.SagaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
@@ -27,6 +30,10 @@ public class OrderSagaOrchestrator {
     private final OrderRepository orderRepository;
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
+    // Includes the first attempt
+    @Value("${saga.payment.max-attempts:3}")
+    private int maxPaymentAttempts;
+
     public void startOrderSaga(Order order) {
         log.info("Starting order saga for order: {}", order.getId());
         
@@ -44,6 +51,7 @@ public class OrderSagaOrchestrator {
             new Saga.SagaStep("NOTIFICATION_SENT", Saga.SagaStep.StepStatus.PENDING, "SEND_CANCELLATION_NOTIFICATION", null, null)
         ));
         
+        saga.setPaymentAttempts(1);
         sagaRepository.save(saga);
         
         // Update order with saga ID
@@ -51,12 +59,23 @@ public class OrderSagaOrchestrator {
         order.setStatus(Order.OrderStatus.PAYMENT_PROCESSING);
         orderRepository.save(order);
         
-        // Publish order created event
+        requestPayment(saga, order);
+        
+        // Update saga status
+        saga.setStatus(Saga.SagaStatus.IN_PROGRESS);
+        saga.setCurrentStep("PAYMENT_PROCESSING");
+        sagaRepository.save(saga);
+        
+        log.info("Order saga started successfully for order: {}", order.getId());
+    }
+
+    // Payment service charges the order when it receives the order created event
+    private void requestPayment(Saga saga, Order order) {
         OrderCreatedEvent orderCreatedEvent = new OrderCreatedEvent();
         orderCreatedEvent.setEventId(UUID.randomUUID().toString());
         orderCreatedEvent.setEventType("ORDER_CREATED");
         orderCreatedEvent.setTimestamp(LocalDateTime.now());
-        orderCreatedEvent.setSagaId(sagaId);
+        orderCreatedEvent.setSagaId(saga.getId());
         orderCreatedEvent.setUserId(order.getUserId());
         orderCreatedEvent.setOrderId(order.getId());
         orderCreatedEvent.setTotalAmount(order.getTotalAmount());
@@ -71,17 +90,15 @@ public class OrderSagaOrchestrator {
         orderCreatedEvent.setShippingAddress(order.getShippingAddress());
         
         kafkaTemplate.send("order-created-topic", orderCreatedEvent);
-        
-        // Update saga status
-        saga.setStatus(Saga.SagaStatus.IN_PROGRESS);
-        saga.setCurrentStep("PAYMENT_PROCESSING");
-        sagaRepository.save(saga);
-        
-        log.info("Order saga started successfully for order: {}", order.getId());
     }
 
     @KafkaListener(topics = "payment-processed-topic")
     public void handlePaymentProcessed(PaymentProcessedEvent event) {
+        // Payments made outside an order saga, e.g. by the payment load test
+        if (event.getSagaId() == null) {
+            return;
+        }
+        
         log.info("Received payment processed event for saga: {}", event.getSagaId());
         
         Optional<Saga> sagaOpt = sagaRepository.findById(event.getSagaId());
@@ -99,6 +116,17 @@ public class OrderSagaOrchestrator {
         
         Order order = orderOpt.get();
         
+        if (order.getStatus() == Order.OrderStatus.CANCELLED) {
+            // Payment settled after the order was cancelled - give the money back
+            if ("SUCCESS".equals(event.getStatus())) {
+                log.warn("Payment {} completed for cancelled order: {}, requesting refund", event.getPaymentId(), order.getId());
+                updateSagaStep(saga, "PAYMENT_PROCESSING", Saga.SagaStep.StepStatus.COMPLETED);
+                sagaRepository.save(saga);
+                requestRefund(saga, event.getPaymentId(), "Order cancelled before payment completed");
+            }
+            return;
+        }
+        
         if ("SUCCESS".equals(event.getStatus())) {
             // Payment successful - continue saga
             log.info("Payment successful for order: {}", order.getId());
@@ -121,11 +149,20 @@ public class OrderSagaOrchestrator {
             notificationEvent.setUserId(order.getUserId());
             notificationEvent.setOrderId(order.getId());
             notificationEvent.setType("EMAIL");
+            notificationEvent.setPriority("TRANSACTIONAL");
             notificationEvent.setSubject("Order Confirmation");
             notificationEvent.setMessage("Your order has been confirmed and payment processed successfully.");
             
             kafkaTemplate.send("notification-topic", notificationEvent);
             
+        } else if (event.isRetryable() && saga.getPaymentAttempts() < maxPaymentAttempts) {
+            // The payment was turned away before reaching the provider, e.g. by a full bulkhead
+            saga.setPaymentAttempts(saga.getPaymentAttempts() + 1);
+            sagaRepository.save(saga);
+            log.warn("Payment {} for order: {} was not attempted, retrying ({} of {})",
+                    event.getPaymentId(), order.getId(), saga.getPaymentAttempts(), maxPaymentAttempts);
+            requestPayment(saga, order);
+            
         } else {
             // Payment failed - start compensation
             log.error("Payment failed for order: {}", order.getId());
@@ -163,9 +200,37 @@ public class OrderSagaOrchestrator {
         log.info("Order saga completed successfully for saga: {}", saga.getId());
     }
 
+    @KafkaListener(topics = "payment-refunded-topic")
+    public void handlePaymentRefunded(PaymentRefundedEvent event) {
+        // Refunds issued outside a saga are not tracked here
+        if (event.getSagaId() == null) {
+            return;
+        }
+        
+        log.info("Received payment refunded event for saga: {}", event.getSagaId());
+        
+        Optional<Saga> sagaOpt = sagaRepository.findById(event.getSagaId());
+        if (sagaOpt.isEmpty()) {
+            log.error("Saga not found: {}", event.getSagaId());
+            return;
+        }
+        
+        Saga saga = sagaOpt.get();
+        
+        if ("SUCCESS".equals(event.getStatus())) {
+            updateSagaStep(saga, "PAYMENT_PROCESSING", Saga.SagaStep.StepStatus.COMPENSATED);
+            sagaRepository.save(saga);
+            log.info("Payment refunded for saga: {}", saga.getId());
+        } else {
+            log.error("Refund failed for payment: {} in saga: {}", event.getPaymentId(), saga.getId());
+        }
+    }
+
     private void compensateOrder(Saga saga) {
         log.info("Starting compensation for saga: {}", saga.getId());
         
+        // Only reached after a failed payment, so there is nothing to refund; a payment that
+        // settles after cancellation is refunded in handlePaymentProcessed
         // Cancel order
         Optional<Order> orderOpt = orderRepository.findById(saga.getOrderId());
         if (orderOpt.isPresent()) {
@@ -182,6 +247,7 @@ public class OrderSagaOrchestrator {
             notificationEvent.setUserId(order.getUserId());
             notificationEvent.setOrderId(order.getId());
             notificationEvent.setType("EMAIL");
+            notificationEvent.setPriority("TRANSACTIONAL");
             notificationEvent.setSubject("Order Cancelled");
             notificationEvent.setMessage("Your order has been cancelled due to payment failure.");
             
@@ -195,6 +261,20 @@ public class OrderSagaOrchestrator {
         log.info("Compensation completed for saga: {}", saga.getId());
     }
 
+    private void requestRefund(Saga saga, String paymentId, String reason) {
+        PaymentRefundRequestedEvent refundEvent = new PaymentRefundRequestedEvent();
+        refundEvent.setEventId(UUID.randomUUID().toString());
+        refundEvent.setEventType("PAYMENT_REFUND_REQUESTED");
+        refundEvent.setTimestamp(LocalDateTime.now());
+        refundEvent.setSagaId(saga.getId());
+        refundEvent.setUserId(saga.getUserId());
+        refundEvent.setPaymentId(paymentId);
+        refundEvent.setOrderId(saga.getOrderId());
+        refundEvent.setReason(reason);
+        
+        kafkaTemplate.send("payment-refund-requested-topic", refundEvent);
+    }
+
     private void updateSagaStep(Saga saga, String stepName, Saga.SagaStep.StepStatus status) {
         saga.getSteps().stream()
             .filter(step -> step.getStepName().equals(stepName))
@@ -0,0 +1,61 @@
+package com.ekart.payment.config;
+
+import com.ekart.payment.entity.Payment;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "payment.bulkhead")
+public class BulkheadProperties {
+
+    private Settings defaults = Settings.builtIn();
+
+    // Per-method overrides; settings a method leaves out are taken from the defaults
+    private Map<Payment.PaymentMethod, Settings> methods = new EnumMap<>(Payment.PaymentMethod.class);
+
+    public Settings forMethod(Payment.PaymentMethod method) {
+        Settings override = methods.get(method);
+        return override != null ? defaults.overriddenBy(override) : defaults;
+    }
+
+    // Fields are nullable so an override can tell unset settings from configured ones
+    @Data
+    public static class Settings {
+        private Integer initialLimit;
+        private Integer minLimit;
+        private Integer maxLimit;
+        private Integer maxQueue;
+        private Duration maxWait;
+        // Calls slower than this shrink the limit, faster ones grow it
+        private Duration latencyThreshold;
+        private Double backoffRatio;
+
+        static Settings builtIn() {
+            Settings settings = new Settings();
+            settings.setInitialLimit(10);
+            settings.setMinLimit(2);
+            settings.setMaxLimit(50);
+            settings.setMaxQueue(20);
+            settings.setMaxWait(Duration.ofMillis(100));
+            settings.setLatencyThreshold(Duration.ofSeconds(3));
+            settings.setBackoffRatio(0.9);
+            return settings;
+        }
+
+        Settings overriddenBy(Settings override) {
+            Settings merged = new Settings();
+            merged.setInitialLimit(override.getInitialLimit() != null ? override.getInitialLimit() : initialLimit);
+            merged.setMinLimit(override.getMinLimit() != null ? override.getMinLimit() : minLimit);
+            merged.setMaxLimit(override.getMaxLimit() != null ? override.getMaxLimit() : maxLimit);
+            merged.setMaxQueue(override.getMaxQueue() != null ? override.getMaxQueue() : maxQueue);
+            merged.setMaxWait(override.getMaxWait() != null ? override.getMaxWait() : maxWait);
+            merged.setLatencyThreshold(override.getLatencyThreshold() != null ? override.getLatencyThreshold() : latencyThreshold);
+            merged.setBackoffRatio(override.getBackoffRatio() != null ? override.getBackoffRatio() : backoffRatio);
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.ekart.payment.config;
+
+import com.ekart.payment.entity.Payment;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "payment.gateway.simulator")
+public class GatewaySimulatorProperties {
+
+    // Fixed seed for reproducible runs; a random seed is used when unset
+    private Long seed;
+
+    // Calls whose sampled latency exceeds this fail with a timeout after waiting it out
+    private Duration timeout = Duration.ofSeconds(30);
+
+    private Latency chargeLatency = Latency.uniform(Duration.ofMillis(1000), Duration.ofMillis(3000));
+    private Latency batchLatency = Latency.uniform(Duration.ofMillis(1000), Duration.ofMillis(3000));
+    private Duration batchPerItemLatency = Duration.ofMillis(5);
+    private Latency lookupLatency = Latency.uniform(Duration.ofMillis(100), Duration.ofMillis(300));
+    private Latency refundLatency = Latency.uniform(Duration.ofMillis(500), Duration.ofMillis(1500));
+
+    // Probability that a call fails at the transport level before reaching the provider
+    private double errorRate = 0.0;
+
+    private Burst burst = new Burst();
+
+    // Share of payments the provider approves, per method
+    private Map<Payment.PaymentMethod, Double> approvalRates = new EnumMap<>(Map.of(
+            Payment.PaymentMethod.CREDIT_CARD, 0.90,
+            Payment.PaymentMethod.PAYPAL, 0.95,
+            Payment.PaymentMethod.BANK_TRANSFER, 0.85,
+            Payment.PaymentMethod.WALLET, 0.97));
+
+    private double refundSuccessRate = 0.95;
+
+    // Share of charges failed in transport that still reached the provider, and so can be looked up
+    private double lookupFoundRate = 0.7;
+
+    public double approvalRate(Payment.PaymentMethod method) {
+        return approvalRates.getOrDefault(method, 0.0);
+    }
+
+    @Data
+    public static class Latency {
+        private Distribution distribution = Distribution.FIXED;
+        // FIXED
+        private Duration fixed = Duration.ZERO;
+        // UNIFORM
+        private Duration min = Duration.ZERO;
+        private Duration max = Duration.ZERO;
+        // LOG_NORMAL, and the fast mode of BIMODAL
+        private Duration median = Duration.ZERO;
+        private double sigma = 0.5;
+        // BIMODAL: a slowFraction share of calls are drawn around slowMedian instead
+        private Duration slowMedian = Duration.ZERO;
+        private double slowFraction = 0.0;
+
+        static Latency uniform(Duration min, Duration max) {
+            Latency latency = new Latency();
+            latency.setDistribution(Distribution.UNIFORM);
+            latency.setMin(min);
+            latency.setMax(max);
+            return latency;
+        }
+    }
+
+    public enum Distribution {
+        FIXED,
+        UNIFORM,
+        LOG_NORMAL,
+        BIMODAL
+    }
+
+    // Periodic failure bursts: for `duration` out of every `every`, errorRate is raised to `errorRate`
+    @Data
+    public static class Burst {
+        private Duration every;
+        private Duration duration = Duration.ZERO;
+        private double errorRate = 1.0;
+    }
+}
@@ -0,0 +1,42 @@
+package com.ekart.payment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "payment.risk")
+public class RiskProperties {
+
+    private boolean enabled = true;
+
+    // Each rule's window is split into this many buckets; more buckets slide more smoothly
+    private int buckets = 10;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        private Key key = Key.USER;
+        private Duration window = Duration.ofMinutes(1);
+        // Limits are inclusive; an unset limit is not checked
+        private Integer maxAttempts;
+        private BigDecimal maxAmount;
+        private Action action = Action.REJECT;
+    }
+
+    public enum Key {
+        USER,
+        CARD
+    }
+
+    public enum Action {
+        FLAG,
+        REJECT
+    }
+}
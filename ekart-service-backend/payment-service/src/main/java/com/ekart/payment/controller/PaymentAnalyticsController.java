@@ -0,0 +1,65 @@
+package com.ekart.payment.controller;
+
+import com.ekart.common.dto.ApiResponse;
+import com.ekart.payment.dto.RevenueBucketDto;
+import com.ekart.payment.dto.RevenueReportDto;
+import com.ekart.payment.entity.Payment;
+import com.ekart.payment.entity.RevenueRollup;
+import com.ekart.payment.service.PaymentAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/payments/analytics")
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentAnalyticsController {
+
+    private final PaymentAnalyticsService analyticsService;
+
+    @GetMapping("/revenue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<RevenueReportDto>> getRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Payment.PaymentStatus status) {
+        
+        log.info("Revenue report request from {} to {}", from, to);
+        
+        RevenueReportDto report = analyticsService.getRevenue(from, to, status);
+        return ResponseEntity.ok(ApiResponse.success(report, "Revenue report retrieved successfully"));
+    }
+
+    @GetMapping("/revenue/series")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<RevenueBucketDto>>> getRevenueSeries(
+            @RequestParam(defaultValue = "DAILY") RevenueRollup.Granularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Payment.PaymentStatus status) {
+        
+        log.info("Revenue series request ({}) from {} to {}", granularity, from, to);
+        
+        List<RevenueBucketDto> series = analyticsService.getRevenueSeries(granularity, from, to, status);
+        return ResponseEntity.ok(ApiResponse.success(series, "Revenue series retrieved successfully"));
+    }
+
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> rebuildRollups(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        
+        log.info("Revenue rollup rebuild request from {} to {}", from, to);
+        
+        int buckets = analyticsService.rebuildRollups(from, to);
+        return ResponseEntity.ok(ApiResponse.success(buckets, "Revenue rollups rebuilt successfully"));
+    }
+}
@@ -1,6 +1,7 @@
 package com.ekart.payment.controller;
 
 import com.ekart.common.dto.ApiResponse;
+import com.ekart.payment.dto.OrderPaymentStatusDto;
 import com.ekart.payment.dto.PaymentRequestDto;
 import com.ekart.payment.dto.PaymentResponseDto;
 import com.ekart.payment.service.PaymentService;
@@ -55,6 +56,15 @@ public class PaymentController {
         return ResponseEntity.ok(ApiResponse.success(payment, "Payment retrieved successfully"));
     }
 
+    @GetMapping("/order/{orderId}/status")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<OrderPaymentStatusDto>> getPaymentStatusByOrderId(@PathVariable String orderId) {
+        log.info("Get payment status request for order: {}", orderId);
+        
+        OrderPaymentStatusDto status = paymentService.getPaymentStatusByOrderId(orderId);
+        return ResponseEntity.ok(ApiResponse.success(status, "Payment status retrieved successfully"));
+    }
+
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Page<PaymentResponseDto>>> getUserPayments(
@@ -80,6 +90,7 @@ public class PaymentController {
         log.info("Refund payment request for ID: {}", paymentId);
         
         PaymentResponseDto payment = paymentService.refundPayment(paymentId);
-        return ResponseEntity.ok(ApiResponse.success(payment, "Payment refunded successfully"));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(payment, "Refund accepted for processing"));
     }
 }
@@ -0,0 +1,33 @@
+package com.ekart.payment.controller;
+
+import com.ekart.common.dto.ApiResponse;
+import com.ekart.payment.dto.LoadTestReportDto;
+import com.ekart.payment.dto.LoadTestRequestDto;
+import com.ekart.payment.service.PaymentLoadTestService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping("/api/payments/load-test")
+@ConditionalOnProperty(name = "payment.load-test.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentLoadTestController {
+
+    private final PaymentLoadTestService loadTestService;
+
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<LoadTestReportDto>> runLoadTest(@Valid @RequestBody LoadTestRequestDto request) {
+        log.info("Payment load test request: {}", request);
+        
+        LoadTestReportDto report = loadTestService.run(request);
+        return ResponseEntity.ok(ApiResponse.success(report, "Load test completed"));
+    }
+}
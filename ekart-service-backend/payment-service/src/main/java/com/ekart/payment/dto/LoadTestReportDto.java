@@ -0,0 +1,26 @@
+package com.ekart.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadTestReportDto {
+    
+    private int requested;
+    // Counted from the resulting payment rows; a failed payment or a missing row is an error
+    private int completed;
+    private int errors;
+    // Still PROCESSING in a settlement batch when the run was counted
+    private int pending;
+    private long elapsedMillis;
+    private double throughputPerSecond;
+    // Measured from each request's scheduled start, so queueing behind slow calls is included
+    private double latencyP50Millis;
+    private double latencyP90Millis;
+    private double latencyP99Millis;
+    private double latencyP999Millis;
+    private double latencyMaxMillis;
+}
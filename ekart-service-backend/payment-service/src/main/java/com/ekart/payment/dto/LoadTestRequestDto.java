@@ -0,0 +1,29 @@
+package com.ekart.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadTestRequestDto {
+    
+    @Positive(message = "Target rate must be positive")
+    private double ratePerSecond = 10;
+    
+    @Positive(message = "Duration must be positive")
+    @Max(value = 600, message = "Duration cannot exceed 600 seconds")
+    private int durationSeconds = 30;
+    
+    @Positive(message = "Concurrency must be positive")
+    @Max(value = 500, message = "Concurrency cannot exceed 500")
+    private int concurrency = 50;
+    
+    @Positive(message = "Amount must be positive")
+    private BigDecimal amount = new BigDecimal("49.99");
+}
@@ -0,0 +1,21 @@
+package com.ekart.payment.dto;
+
+import com.ekart.payment.entity.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPaymentStatusDto {
+    
+    private String orderId;
+    private String paymentId;
+    private Payment.PaymentStatus status;
+    private String transactionId;
+    private int attempts;
+    private LocalDateTime updatedAt;
+}
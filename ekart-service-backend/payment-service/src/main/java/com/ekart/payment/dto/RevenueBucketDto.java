@@ -0,0 +1,22 @@
+package com.ekart.payment.dto;
+
+import com.ekart.payment.entity.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueBucketDto {
+    
+    private LocalDateTime bucketStart;
+    private Payment.PaymentStatus status;
+    private Payment.PaymentMethod paymentMethod;
+    private String currency;
+    private long paymentCount;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,31 @@
+package com.ekart.payment.dto;
+
+import com.ekart.payment.entity.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueReportDto {
+    
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private List<Breakdown> breakdown;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Breakdown {
+        private Payment.PaymentStatus status;
+        private Payment.PaymentMethod paymentMethod;
+        private String currency;
+        private long paymentCount;
+        private BigDecimal totalAmount;
+    }
+}
@@ -0,0 +1,44 @@
+package com.ekart.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Read model of the latest payment attempt per order. Written only by OrderPaymentStatusProjector,
+// which evicts the cached entry after each change.
+@Entity
+@Table(name = "order_payment_status")
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "order-payment-status")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPaymentStatus {
+    
+    @Id
+    @Column(name = "order_id")
+    private String orderId;
+    
+    @Column(name = "payment_id", nullable = false)
+    private String paymentId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private Payment.PaymentStatus status;
+    
+    @Column(name = "transaction_id")
+    private String transactionId;
+    
+    @Column(nullable = false)
+    private int attempts;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.ekart.payment.entity;
+
+import com.ekart.payment.service.OrderPaymentStatusProjector;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Keeps the order payment status read model in step with every payment write
+public class OrderPaymentStatusListener {
+
+    private final ObjectProvider<OrderPaymentStatusProjector> projector;
+
+    public OrderPaymentStatusListener(ObjectProvider<OrderPaymentStatusProjector> projector) {
+        this.projector = projector;
+    }
+
+    @PostPersist
+    public void onPersist(Payment payment) {
+        projector.getObject().recordAttempt(payment);
+    }
+
+    @PostUpdate
+    public void onUpdate(Payment payment) {
+        projector.getObject().recordUpdate(payment);
+    }
+}
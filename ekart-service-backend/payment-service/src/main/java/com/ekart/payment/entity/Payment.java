@@ -9,7 +9,15 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+// Range-partitioned by month on created_at (see PaymentPartitionManager), so every unique
+// key has to include created_at
+@Table(name = "payments",
+       uniqueConstraints = @UniqueConstraint(name = "uk_payments_payment_id_created_at", columnNames = {"payment_id", "created_at"}),
+       indexes = {
+               @Index(name = "idx_payments_status", columnList = "status"),
+               @Index(name = "idx_payments_order_id", columnList = "order_id")
+       })
+@EntityListeners({RevenueRollupListener.class, OrderPaymentStatusListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,10 +27,10 @@ public class Payment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(nullable = false, unique = true)
+    @Column(name = "payment_id", nullable = false)
     private String paymentId;
     
-    @Column(nullable = false)
+    @Column(name = "order_id", nullable = false)
     private String orderId;
     
     @Column(nullable = false)
@@ -50,13 +58,24 @@ public class Payment {
     
     private String sagaId;
     
-    @Column(nullable = false)
+    // Refund dispatch round that last claimed the payment; only that round may settle the refund
+    private String refundClaimId;
+    
+    // Velocity rules that flagged or rejected the payment, comma separated
+    private String riskFlags;
+    
+    // Partitioning key; updating it would move the row between partitions
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
     
     private LocalDateTime updatedAt = LocalDateTime.now();
     
     private LocalDateTime processedAt;
     
+    // Status as last counted in the revenue rollups, maintained by RevenueRollupListener
+    @Transient
+    private PaymentStatus rollupStatus;
+    
     @PreUpdate
     public void preUpdate() {
         updatedAt = LocalDateTime.now();
@@ -80,6 +99,9 @@ public class Payment {
         COMPLETED,
         FAILED,
         CANCELLED,
-        REFUNDED
+        REFUND_PENDING,
+        REFUND_PROCESSING,
+        REFUNDED,
+        REFUND_FAILED
     }
 }
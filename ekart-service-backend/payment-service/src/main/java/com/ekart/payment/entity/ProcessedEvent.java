@@ -0,0 +1,31 @@
+package com.ekart.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "processed_events",
+       uniqueConstraints = @UniqueConstraint(name = "uk_processed_events_consumer_event", columnNames = {"consumer", "event_id"}),
+       indexes = @Index(name = "idx_processed_events_processed_at", columnList = "processed_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 100)
+    private String consumer;
+    
+    @Column(name = "event_id", nullable = false, length = 64)
+    private String eventId;
+    
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt = LocalDateTime.now();
+}
@@ -0,0 +1,53 @@
+package com.ekart.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "revenue_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_revenue_rollups_bucket",
+               columnNames = {"granularity", "bucket_start", "status", "payment_method", "currency"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Granularity granularity;
+    
+    // Start of the hour or day the payments were created in
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private Payment.PaymentStatus status;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_method", nullable = false, length = 30)
+    private Payment.PaymentMethod paymentMethod;
+    
+    @Column(nullable = false, length = 3)
+    private String currency;
+    
+    @Column(name = "payment_count", nullable = false)
+    private long paymentCount;
+    
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount;
+    
+    public enum Granularity {
+        HOURLY,
+        DAILY
+    }
+}
@@ -0,0 +1,37 @@
+package com.ekart.payment.entity;
+
+import com.ekart.payment.service.RevenueRollupAggregator;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+// Feeds status transitions into the revenue rollups. The aggregator is looked up lazily
+// because Hibernate creates listeners while the EntityManagerFactory is still being built.
+public class RevenueRollupListener {
+
+    private final ObjectProvider<RevenueRollupAggregator> aggregator;
+
+    public RevenueRollupListener(ObjectProvider<RevenueRollupAggregator> aggregator) {
+        this.aggregator = aggregator;
+    }
+
+    @PostLoad
+    public void onLoad(Payment payment) {
+        payment.setRollupStatus(payment.getStatus());
+    }
+
+    @PostPersist
+    public void onPersist(Payment payment) {
+        aggregator.getObject().recordTransition(payment, null);
+        payment.setRollupStatus(payment.getStatus());
+    }
+
+    @PostUpdate
+    public void onUpdate(Payment payment) {
+        if (payment.getStatus() != payment.getRollupStatus()) {
+            aggregator.getObject().recordTransition(payment, payment.getRollupStatus());
+            payment.setRollupStatus(payment.getStatus());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.ekart.payment.exception;
+
+// Transport-level failure talking to the provider, as opposed to a declined payment
+public class PaymentGatewayException extends RuntimeException {
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+}
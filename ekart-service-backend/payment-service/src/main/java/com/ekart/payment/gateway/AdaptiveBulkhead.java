@@ -0,0 +1,102 @@
+package com.ekart.payment.gateway;
+
+import com.ekart.payment.config.BulkheadProperties;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Concurrency limiter whose limit follows AIMD on observed latency:
+// +1/limit per fast call, multiplied by backoffRatio per slow or failed call
+public class AdaptiveBulkhead {
+
+    private final BulkheadProperties.Settings settings;
+    private final long latencyThresholdNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private final AtomicLong rejections = new AtomicLong();
+
+    public AdaptiveBulkhead(BulkheadProperties.Settings settings) {
+        this.settings = settings;
+        this.latencyThresholdNanos = settings.getLatencyThreshold().toNanos();
+        this.limit = settings.getInitialLimit();
+    }
+
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return true;
+            }
+            if (waiting >= settings.getMaxQueue()) {
+                rejections.incrementAndGet();
+                return false;
+            }
+
+            waiting++;
+            try {
+                long remaining = settings.getMaxWait().toNanos();
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        rejections.incrementAndGet();
+                        return false;
+                    }
+                    remaining = permitReleased.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rejections.incrementAndGet();
+                return false;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long latencyNanos, boolean failed) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+            } else {
+                limit = Math.min(settings.getMaxLimit(), limit + 1.0 / limit);
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejections() {
+        return rejections.get();
+    }
+}
@@ -0,0 +1,68 @@
+package com.ekart.payment.gateway;
+
+import com.ekart.payment.config.BulkheadProperties;
+import com.ekart.payment.dto.PaymentRequestDto;
+import com.ekart.payment.entity.Payment;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Component
+@EnableConfigurationProperties(BulkheadProperties.class)
+@Slf4j
+public class PaymentMethodBulkheads {
+
+    private final Map<Payment.PaymentMethod, AdaptiveBulkhead> bulkheads = new EnumMap<>(Payment.PaymentMethod.class);
+
+    public PaymentMethodBulkheads(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        for (Payment.PaymentMethod method : Payment.PaymentMethod.values()) {
+            AdaptiveBulkhead bulkhead = new AdaptiveBulkhead(properties.forMethod(method));
+            bulkheads.put(method, bulkhead);
+
+            Gauge.builder("payment.bulkhead.limit", bulkhead, AdaptiveBulkhead::getLimit)
+                    .tag("method", method.name())
+                    .register(meterRegistry);
+            Gauge.builder("payment.bulkhead.in.flight", bulkhead, AdaptiveBulkhead::getInFlight)
+                    .tag("method", method.name())
+                    .register(meterRegistry);
+            FunctionCounter.builder("payment.bulkhead.rejections", bulkhead, AdaptiveBulkhead::getRejections)
+                    .tag("method", method.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    public PaymentGateway.PaymentResult execute(PaymentRequestDto paymentRequest,
+                                                Supplier<PaymentGateway.PaymentResult> gatewayCall) {
+        Payment.PaymentMethod method = paymentRequest.getPaymentMethod();
+        AdaptiveBulkhead bulkhead = bulkheads.get(method);
+
+        if (!bulkhead.tryAcquire()) {
+            log.warn("Bulkhead full for payment method {}, rejecting payment for order: {}",
+                    method, paymentRequest.getOrderId());
+
+            PaymentGateway.PaymentResult rejected = new PaymentGateway.PaymentResult();
+            rejected.setSuccess(false);
+            rejected.setRetryable(true);
+            rejected.setFailureReason("Payment provider for " + method + " is at capacity, please retry");
+            rejected.setGatewayResponse("Rejected by bulkhead");
+            return rejected;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            PaymentGateway.PaymentResult result = gatewayCall.get();
+            failed = false;
+            return result;
+        } finally {
+            bulkhead.release(System.nanoTime() - start, failed);
+        }
+    }
+}
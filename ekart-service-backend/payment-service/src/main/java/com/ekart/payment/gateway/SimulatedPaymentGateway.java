@@ -0,0 +1,225 @@
+package com.ekart.payment.gateway;
+
+import com.ekart.payment.config.GatewaySimulatorProperties;
+import com.ekart.payment.dto.PaymentRequestDto;
+import com.ekart.payment.entity.Payment;
+import com.ekart.payment.exception.PaymentGatewayException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@ConditionalOnProperty(name = "payment.gateway.provider", havingValue = "simulator", matchIfMissing = true)
+@EnableConfigurationProperties(GatewaySimulatorProperties.class)
+@Slf4j
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private final GatewaySimulatorProperties properties;
+    private final Random random;
+    private final long startNanos = System.nanoTime();
+    // Charge results by payment reference and refund outcomes by idempotency key, as the provider would remember them
+    private final Map<String, PaymentResult> chargeOutcomes = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> refundOutcomes = new ConcurrentHashMap<>();
+
+    public SimulatedPaymentGateway(GatewaySimulatorProperties properties) {
+        this.properties = properties;
+        this.random = properties.getSeed() != null ? new Random(properties.getSeed()) : new Random();
+        log.info("Simulated payment gateway started with seed {}", properties.getSeed() != null ? properties.getSeed() : "random");
+    }
+
+    @Override
+    public PaymentResult processPayment(String paymentId, PaymentRequestDto paymentRequest) {
+        log.info("Processing payment {} through gateway for order: {}", paymentId, paymentRequest.getOrderId());
+
+        try {
+            simulateCall(sampleLatency(properties.getChargeLatency()));
+        } catch (PaymentGatewayException e) {
+            maybeReceived(paymentId, paymentRequest);
+            throw e;
+        }
+        PaymentResult result = charge(paymentId, paymentRequest);
+
+        log.info("Payment processing completed for order: {} with result: {}",
+                paymentRequest.getOrderId(), result.isSuccess() ? "SUCCESS" : "FAILED");
+
+        return result;
+    }
+
+    @Override
+    public List<PaymentResult> processBatch(List<String> paymentIds, List<PaymentRequestDto> paymentRequests) {
+        log.info("Processing batch of {} payments through gateway", paymentRequests.size());
+
+        // One round trip for the whole batch plus a small per-item cost
+        try {
+            simulateCall(sampleLatency(properties.getBatchLatency())
+                    .plus(properties.getBatchPerItemLatency().multipliedBy(paymentRequests.size())));
+        } catch (PaymentGatewayException e) {
+            for (int i = 0; i < paymentIds.size(); i++) {
+                maybeReceived(paymentIds.get(i), paymentRequests.get(i));
+            }
+            throw e;
+        }
+
+        List<PaymentResult> results = new ArrayList<>(paymentRequests.size());
+        for (int i = 0; i < paymentIds.size(); i++) {
+            results.add(charge(paymentIds.get(i), paymentRequests.get(i)));
+        }
+
+        log.info("Batch processing completed: {} of {} payments succeeded",
+                results.stream().filter(PaymentResult::isSuccess).count(), results.size());
+
+        return results;
+    }
+
+    @Override
+    public Optional<PaymentResult> lookupPayment(String paymentId) {
+        log.info("Looking up gateway status for payment: {}", paymentId);
+
+        simulateCall(sampleLatency(properties.getLookupLatency()));
+
+        return Optional.ofNullable(chargeOutcomes.get(paymentId));
+    }
+
+    @Override
+    public boolean refundPayment(String transactionId) {
+        log.info("Processing refund for transaction: {}", transactionId);
+
+        simulateCall(sampleLatency(properties.getRefundLatency()));
+        boolean success = random.nextDouble() < properties.getRefundSuccessRate();
+
+        log.info("Refund processing completed for transaction: {} with result: {}",
+                transactionId, success ? "SUCCESS" : "FAILED");
+
+        return success;
+    }
+
+    @Override
+    public List<Boolean> refundBatch(List<String> transactionIds, List<String> idempotencyKeys) {
+        log.info("Processing batch of {} refunds through gateway", transactionIds.size());
+
+        // Refunds are applied before the response can be lost to a timeout, as with a real provider
+        List<Boolean> results = idempotencyKeys.stream()
+                .map(key -> refundOutcomes.computeIfAbsent(key,
+                        k -> random.nextDouble() < properties.getRefundSuccessRate()))
+                .toList();
+
+        simulateCall(sampleLatency(properties.getRefundLatency())
+                .plus(properties.getBatchPerItemLatency().multipliedBy(transactionIds.size())));
+
+        log.info("Refund batch completed: {} of {} refunds succeeded",
+                results.stream().filter(Boolean::booleanValue).count(), results.size());
+
+        return results;
+    }
+
+    private PaymentResult charge(String paymentId, PaymentRequestDto paymentRequest) {
+        return chargeOutcomes.computeIfAbsent(paymentId, id -> settle(paymentRequest));
+    }
+
+    // A call that failed in transport may still have reached the provider, which then has a record of it
+    private void maybeReceived(String paymentId, PaymentRequestDto paymentRequest) {
+        if (random.nextDouble() < properties.getLookupFoundRate()) {
+            charge(paymentId, paymentRequest);
+        }
+    }
+
+    // Waits out the sampled latency, or the timeout if that is shorter, then maybe fails in transport
+    private void simulateCall(Duration latency) {
+        Duration timeout = properties.getTimeout();
+        boolean timedOut = latency.compareTo(timeout) > 0;
+
+        try {
+            Thread.sleep(timedOut ? timeout.toMillis() : latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Interrupted while waiting for payment provider");
+        }
+
+        if (timedOut) {
+            throw new PaymentGatewayException("Payment provider timed out after " + timeout.toMillis() + "ms");
+        }
+        if (random.nextDouble() < currentErrorRate()) {
+            throw new PaymentGatewayException("Payment provider unavailable");
+        }
+    }
+
+    private double currentErrorRate() {
+        GatewaySimulatorProperties.Burst burst = properties.getBurst();
+        if (burst.getEvery() != null && !burst.getEvery().isZero()) {
+            long intoCycle = (System.nanoTime() - startNanos) % burst.getEvery().toNanos();
+            if (intoCycle < burst.getDuration().toNanos()) {
+                return burst.getErrorRate();
+            }
+        }
+        return properties.getErrorRate();
+    }
+
+    private Duration sampleLatency(GatewaySimulatorProperties.Latency latency) {
+        double millis = switch (latency.getDistribution()) {
+            case FIXED -> latency.getFixed().toMillis();
+            case UNIFORM -> latency.getMin().toMillis()
+                    + random.nextDouble() * (latency.getMax().toMillis() - latency.getMin().toMillis());
+            case LOG_NORMAL -> logNormal(latency.getMedian(), latency.getSigma());
+            case BIMODAL -> random.nextDouble() < latency.getSlowFraction()
+                    ? logNormal(latency.getSlowMedian(), latency.getSigma())
+                    : logNormal(latency.getMedian(), latency.getSigma());
+        };
+        return Duration.ofMillis(Math.max(0, Math.round(millis)));
+    }
+
+    private double logNormal(Duration median, double sigma) {
+        return median.toMillis() * Math.exp(sigma * random.nextGaussian());
+    }
+
+    // Simulate the provider's decision based on payment method
+    private PaymentResult settle(PaymentRequestDto paymentRequest) {
+        Payment.PaymentMethod method = paymentRequest.getPaymentMethod();
+        boolean approved = random.nextDouble() < properties.approvalRate(method);
+
+        PaymentResult result = new PaymentResult();
+        result.setSuccess(approved);
+
+        switch (method) {
+            case CREDIT_CARD:
+                result.setTransactionId("CC_" + shortId());
+                result.setGatewayResponse(approved ? "Payment processed successfully" : "Transaction declined by bank");
+                result.setFailureReason(approved ? null : "Insufficient funds");
+                break;
+            case PAYPAL:
+                result.setTransactionId("PP_" + shortId());
+                result.setGatewayResponse(approved ? "PayPal payment successful" : "PayPal payment failed");
+                result.setFailureReason(approved ? null : "PayPal account restricted");
+                break;
+            case BANK_TRANSFER:
+                result.setTransactionId("BT_" + shortId());
+                result.setGatewayResponse(approved ? "Bank transfer initiated successfully" : "Bank transfer failed");
+                result.setFailureReason(approved ? null : "Invalid account information");
+                break;
+            case WALLET:
+                result.setTransactionId("WL_" + shortId());
+                result.setGatewayResponse(approved ? "Wallet payment successful" : "Wallet payment declined");
+                result.setFailureReason(approved ? null : "Insufficient wallet balance");
+                break;
+            default:
+                result.setTransactionId(UUID.randomUUID().toString());
+                result.setSuccess(false);
+                result.setFailureReason("Unsupported payment method");
+        }
+
+        return result;
+    }
+
+    private String shortId() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+}
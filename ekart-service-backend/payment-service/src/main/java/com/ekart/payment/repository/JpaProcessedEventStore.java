@@ -0,0 +1,36 @@
+package com.ekart.payment.repository;
+
+import com.ekart.common.events.dedup.ProcessedEventStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JpaProcessedEventStore implements ProcessedEventStore {
+
+    private final ProcessedEventRepository processedEventRepository;
+
+    @Value("${payment.events.dedup.retention-days:7}")
+    private int retentionDays;
+
+    // Joins the listener's transaction, so a rolled-back listener releases its claim
+    @Override
+    @Transactional
+    public boolean markProcessed(String consumer, String eventId) {
+        return processedEventRepository.insertIfAbsent(consumer, eventId, LocalDateTime.now()) == 1;
+    }
+
+    @Scheduled(cron = "${payment.events.dedup.cleanup-cron:0 0 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = processedEventRepository.deleteProcessedBefore(LocalDateTime.now().minusDays(retentionDays));
+        log.info("Purged {} processed event records older than {} days", deleted, retentionDays);
+    }
+}
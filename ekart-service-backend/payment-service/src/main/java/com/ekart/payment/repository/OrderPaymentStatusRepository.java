@@ -0,0 +1,9 @@
+package com.ekart.payment.repository;
+
+import com.ekart.payment.entity.OrderPaymentStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderPaymentStatusRepository extends JpaRepository<OrderPaymentStatus, String> {
+}
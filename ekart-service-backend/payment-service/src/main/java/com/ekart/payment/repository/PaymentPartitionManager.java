@@ -0,0 +1,236 @@
+package com.ekart.payment.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Keeps the payments table range-partitioned by month on created_at: converts it on first start,
+// creates partitions ahead of time and detaches partitions past retention into archive tables.
+// Layout changes run under a MySQL named lock, so only one instance applies them at a time.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentPartitionManager {
+
+    private static final String TABLE = "payments";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'uuuuMM");
+    private static final DateTimeFormatter ARCHIVE_TABLE = DateTimeFormatter.ofPattern("'payments_archive_'uuuuMM");
+    private static final String LOCK_NAME = "ekart.payments.partitioning";
+    private static final String PAYMENT_ID_KEY = "uk_payments_payment_id_created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${payment.partitioning.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${payment.partitioning.retention-months:13}")
+    private int retentionMonths;
+
+    // When false, expired partitions are dropped instead of exchanged into archive tables
+    @Value("${payment.partitioning.archive:true}")
+    private boolean archive;
+
+    // Converting a table that already holds rows copies all of them while writes are blocked,
+    // so it only happens when an operator asks for it
+    @Value("${payment.partitioning.convert-existing:false}")
+    private boolean convertExisting;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            withPartitionLock(() -> {
+                // Another instance may have converted the table while this one waited to start
+                if (partitionMonths().isEmpty()) {
+                    partitionTable();
+                }
+            });
+        } catch (Exception e) {
+            log.error("Partitioning the payments table failed", e);
+        }
+        maintain();
+    }
+
+    @Scheduled(cron = "${payment.partitioning.maintenance-cron:0 15 2 * * *}")
+    public synchronized void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            withPartitionLock(() -> {
+                if (partitionMonths().isEmpty()) {
+                    return;
+                }
+                createFuturePartitions();
+                archiveExpiredPartitions();
+            });
+        } catch (Exception e) {
+            log.error("Payment partition maintenance failed", e);
+        }
+    }
+
+    // Oldest createdAt still held in the payments table; older rows live in archive tables
+    public LocalDateTime retentionStart() {
+        return retentionStartMonth().atDay(1).atStartOfDay();
+    }
+
+    private synchronized void partitionTable() {
+        LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM " + TABLE, LocalDateTime.class);
+        if (oldest != null && !convertExisting) {
+            log.warn("{} holds rows and is not partitioned; set payment.partitioning.convert-existing "
+                    + "to convert it, which blocks writes while the table is copied", TABLE);
+            return;
+        }
+        YearMonth first = oldest != null ? YearMonth.from(oldest) : YearMonth.now();
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+
+        log.info("Converting {} to monthly range partitions from {} to {}", TABLE, first, last);
+
+        // MySQL requires every unique key, including the primary key, to contain the partitioning column.
+        // The payment_id key is replaced by one on (payment_id, created_at) before any other is dropped.
+        if (!indexExists(PAYMENT_ID_KEY)) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD UNIQUE KEY " + PAYMENT_ID_KEY + " (payment_id, created_at)");
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at)");
+        for (String index : uniqueIndexesWithoutCreatedAt()) {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP INDEX `" + index + "`");
+        }
+
+        List<String> partitions = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            partitions.add(partitionDefinition(month));
+        }
+        partitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " PARTITION BY RANGE COLUMNS(created_at) ("
+                + String.join(", ", partitions) + ")");
+    }
+
+    private void createFuturePartitions() {
+        List<YearMonth> existing = partitionMonths();
+        YearMonth next = existing.isEmpty() ? YearMonth.now() : existing.get(existing.size() - 1).plusMonths(1);
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+
+        for (YearMonth month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+            // Splitting the empty catch-all partition is a metadata-only change
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO ("
+                    + partitionDefinition(month) + ", PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+            log.info("Created payments partition {}", month.format(PARTITION_NAME));
+        }
+    }
+
+    private void archiveExpiredPartitions() {
+        YearMonth retentionStart = retentionStartMonth();
+
+        for (YearMonth month : partitionMonths()) {
+            if (!month.isBefore(retentionStart)) {
+                break;
+            }
+            String partition = month.format(PARTITION_NAME);
+
+            if (archive) {
+                // Exchanging swaps the partition's data files with an empty table, without copying rows
+                String archiveTable = month.format(ARCHIVE_TABLE);
+                if (tableExists(archiveTable)) {
+                    log.warn("Archive table {} already exists, leaving partition {} in place", archiveTable, partition);
+                    continue;
+                }
+                jdbcTemplate.execute("CREATE TABLE " + archiveTable + " LIKE " + TABLE);
+                jdbcTemplate.execute("ALTER TABLE " + archiveTable + " REMOVE PARTITIONING");
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " EXCHANGE PARTITION " + partition
+                        + " WITH TABLE " + archiveTable);
+                log.info("Archived payments partition {} into {}", partition, archiveTable);
+            }
+
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partition);
+            log.info("Dropped payments partition {}", partition);
+        }
+    }
+
+    // Monthly partitions in ascending order, empty while the table is not partitioned
+    private List<YearMonth> partitionMonths() {
+        return jdbcTemplate.queryForList(
+                        "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION",
+                        String.class, TABLE).stream()
+                .filter(name -> !FUTURE_PARTITION.equals(name))
+                .map(name -> YearMonth.parse(name, PARTITION_NAME))
+                .collect(Collectors.toList());
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                Integer.class, table);
+        return count != null && count > 0;
+    }
+
+    // Holds a named lock on one pooled connection while the work runs on others; skips the work if
+    // another instance holds it
+    private void withPartitionLock(Runnable work) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet lock = statement.executeQuery("SELECT GET_LOCK('" + LOCK_NAME + "', 0)")) {
+                    if (!lock.next() || lock.getInt(1) != 1) {
+                        log.info("Payments partitioning is locked by another instance, skipping");
+                        return null;
+                    }
+                }
+                try {
+                    work.run();
+                } finally {
+                    statement.execute("DO RELEASE_LOCK('" + LOCK_NAME + "')");
+                }
+            }
+            return null;
+        });
+    }
+
+    private boolean indexExists(String index) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?",
+                Integer.class, TABLE, index);
+        return count != null && count > 0;
+    }
+
+    private List<String> uniqueIndexesWithoutCreatedAt() {
+        return jdbcTemplate.queryForList(
+                "SELECT INDEX_NAME FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND NON_UNIQUE = 0 AND INDEX_NAME <> 'PRIMARY' " +
+                "GROUP BY INDEX_NAME HAVING SUM(COLUMN_NAME = 'created_at') = 0",
+                String.class, TABLE);
+    }
+
+    private String partitionDefinition(YearMonth month) {
+        LocalDate upperBound = month.plusMonths(1).atDay(1);
+        return "PARTITION " + month.format(PARTITION_NAME) + " VALUES LESS THAN ('" + upperBound + "')";
+    }
+
+    private YearMonth retentionStartMonth() {
+        return YearMonth.now().minusMonths(retentionMonths);
+    }
+}
@@ -1,15 +1,20 @@
 package com.ekart.payment.repository;
 
 import com.ekart.payment.entity.Payment;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,7 +23,16 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     Optional<Payment> findByPaymentId(String paymentId);
     
-    Optional<Payment> findByOrderId(String orderId);
+    // Every attempt for the order, latest first; only used to backfill the order payment status read model
+    List<Payment> findByOrderIdOrderByCreatedAtDesc(String orderId);
+    
+    List<Payment> findByOrderIdIn(Collection<String> orderIds);
+    
+    // Locks the rows still in the given status, so concurrent settlers cannot both apply an outcome
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.paymentId IN :paymentIds AND p.status = :status")
+    List<Payment> findByPaymentIdInAndStatusForUpdate(@Param("paymentIds") Collection<String> paymentIds,
+                                                      @Param("status") Payment.PaymentStatus status);
     
     List<Payment> findByUserId(String userId);
     
@@ -28,6 +42,7 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     List<Payment> findByPaymentMethod(Payment.PaymentMethod paymentMethod);
     
+    // Range predicates on createdAt are what let MySQL prune the monthly partitions
     @Query("SELECT p FROM Payment p WHERE p.createdAt BETWEEN :startDate AND :endDate")
     List<Payment> findByCreatedAtBetween(@Param("startDate") LocalDateTime startDate, 
                                        @Param("endDate") LocalDateTime endDate);
@@ -39,7 +54,24 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     Optional<Payment> findBySagaId(String sagaId);
     
-    @Query("SELECT p FROM Payment p WHERE p.status = :status AND p.createdAt < :cutoffTime")
+    // Lock timeout -2 is Hibernate's SKIP LOCKED, so concurrent pollers claim disjoint rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p FROM Payment p WHERE p.status = :pendingStatus " +
+           "OR (p.status = :claimedStatus AND p.updatedAt < :claimExpiry) ORDER BY p.updatedAt")
+    List<Payment> findRefundsToClaim(@Param("pendingStatus") Payment.PaymentStatus pendingStatus,
+                                     @Param("claimedStatus") Payment.PaymentStatus claimedStatus,
+                                     @Param("claimExpiry") LocalDateTime claimExpiry,
+                                     Pageable pageable);
+    
+    // Keyset cursor over id, so callers walk any backlog one fixed-size chunk at a time.
+    // The lower createdAt bound lets MySQL prune partitions older than the lookback.
+    @Query("SELECT p FROM Payment p WHERE p.status = :status " +
+           "AND p.createdAt >= :createdAfter AND p.createdAt < :cutoffTime " +
+           "AND p.id > :afterId ORDER BY p.id")
     List<Payment> findStalePayments(@Param("status") Payment.PaymentStatus status,
-                                  @Param("cutoffTime") LocalDateTime cutoffTime);
+                                  @Param("createdAfter") LocalDateTime createdAfter,
+                                  @Param("cutoffTime") LocalDateTime cutoffTime,
+                                  @Param("afterId") Long afterId,
+                                  Pageable pageable);
 }
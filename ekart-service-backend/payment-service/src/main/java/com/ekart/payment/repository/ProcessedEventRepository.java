@@ -0,0 +1,26 @@
+package com.ekart.payment.repository;
+
+import com.ekart.payment.entity.ProcessedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, Long> {
+    
+    // Returns 0 instead of failing the surrounding transaction when the key already exists
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO processed_events (consumer, event_id, processed_at) " +
+                   "VALUES (:consumer, :eventId, :processedAt)", nativeQuery = true)
+    int insertIfAbsent(@Param("consumer") String consumer,
+                       @Param("eventId") String eventId,
+                       @Param("processedAt") LocalDateTime processedAt);
+    
+    @Modifying
+    @Query("DELETE FROM ProcessedEvent pe WHERE pe.processedAt < :cutoffTime")
+    int deleteProcessedBefore(@Param("cutoffTime") LocalDateTime cutoffTime);
+}
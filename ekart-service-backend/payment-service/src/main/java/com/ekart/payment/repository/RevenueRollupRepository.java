@@ -0,0 +1,66 @@
+package com.ekart.payment.repository;
+
+import com.ekart.payment.entity.RevenueRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, Long> {
+    
+    @Query("SELECT r FROM RevenueRollup r WHERE r.granularity = :granularity " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<RevenueRollup> findBuckets(@Param("granularity") RevenueRollup.Granularity granularity,
+                                    @Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to);
+    
+    @Modifying
+    @Query(value = "INSERT INTO revenue_rollups " +
+                   "(granularity, bucket_start, status, payment_method, currency, payment_count, total_amount) " +
+                   "VALUES (:granularity, :bucketStart, :status, :paymentMethod, :currency, :countDelta, :amountDelta) " +
+                   "ON DUPLICATE KEY UPDATE payment_count = payment_count + :countDelta, " +
+                   "total_amount = total_amount + :amountDelta",
+           nativeQuery = true)
+    int applyDelta(@Param("granularity") String granularity,
+                   @Param("bucketStart") LocalDateTime bucketStart,
+                   @Param("status") String status,
+                   @Param("paymentMethod") String paymentMethod,
+                   @Param("currency") String currency,
+                   @Param("countDelta") long countDelta,
+                   @Param("amountDelta") BigDecimal amountDelta);
+    
+    // Share-locks the payments in range, so their status cannot change until the transaction ends
+    @Query(value = "SELECT COUNT(*) FROM payments WHERE created_at >= :from AND created_at < :to FOR SHARE",
+           nativeQuery = true)
+    long lockPayments(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Modifying
+    @Query("DELETE FROM RevenueRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to")
+    int deleteBuckets(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Modifying
+    @Query(value = "INSERT INTO revenue_rollups " +
+                   "(granularity, bucket_start, status, payment_method, currency, payment_count, total_amount) " +
+                   "SELECT 'HOURLY', DATE_ADD(DATE(created_at), INTERVAL HOUR(created_at) HOUR), " +
+                   "status, payment_method, currency, COUNT(*), SUM(amount) " +
+                   "FROM payments WHERE created_at >= :from AND created_at < :to " +
+                   "GROUP BY DATE_ADD(DATE(created_at), INTERVAL HOUR(created_at) HOUR), status, payment_method, currency",
+           nativeQuery = true)
+    int rebuildHourly(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Modifying
+    @Query(value = "INSERT INTO revenue_rollups " +
+                   "(granularity, bucket_start, status, payment_method, currency, payment_count, total_amount) " +
+                   "SELECT 'DAILY', TIMESTAMP(DATE(created_at)), " +
+                   "status, payment_method, currency, COUNT(*), SUM(amount) " +
+                   "FROM payments WHERE created_at >= :from AND created_at < :to " +
+                   "GROUP BY DATE(created_at), status, payment_method, currency",
+           nativeQuery = true)
+    int rebuildDaily(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
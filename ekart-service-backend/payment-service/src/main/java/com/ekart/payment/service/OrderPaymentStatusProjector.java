@@ -0,0 +1,91 @@
+package com.ekart.payment.service;
+
+import com.ekart.payment.entity.OrderPaymentStatus;
+import com.ekart.payment.entity.Payment;
+import com.ekart.payment.repository.OrderPaymentStatusRepository;
+import com.ekart.payment.repository.PaymentRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Maintains order_payment_status from payment writes. Writes go through JDBC on the payment's own
+// connection, so they commit or roll back with it and never re-enter the Hibernate flush that fired them.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderPaymentStatusProjector {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderPaymentStatusRepository orderPaymentStatusRepository;
+    private final PaymentRepository paymentRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    // A new attempt always becomes the order's latest payment
+    public void recordAttempt(Payment payment) {
+        jdbcTemplate.update("INSERT INTO order_payment_status " +
+                        "(order_id, payment_id, status, transaction_id, attempts, updated_at) VALUES (?, ?, ?, ?, 1, ?) " +
+                        "ON DUPLICATE KEY UPDATE attempts = attempts + 1, payment_id = VALUES(payment_id), " +
+                        "status = VALUES(status), transaction_id = VALUES(transaction_id), updated_at = VALUES(updated_at)",
+                payment.getOrderId(), payment.getPaymentId(), payment.getStatus().name(),
+                payment.getTransactionId(), LocalDateTime.now());
+        evictAfterCompletion(payment.getOrderId());
+    }
+
+    // Changes to earlier attempts leave the read model alone
+    public void recordUpdate(Payment payment) {
+        int updated = jdbcTemplate.update("UPDATE order_payment_status SET status = ?, transaction_id = ?, updated_at = ? " +
+                        "WHERE order_id = ? AND payment_id = ?",
+                payment.getStatus().name(), payment.getTransactionId(), LocalDateTime.now(),
+                payment.getOrderId(), payment.getPaymentId());
+        if (updated > 0) {
+            evictAfterCompletion(payment.getOrderId());
+        }
+    }
+
+    // Served from the second-level cache; orders paid before the read model existed are backfilled on first lookup
+    public Optional<OrderPaymentStatus> find(String orderId) {
+        Optional<OrderPaymentStatus> status = orderPaymentStatusRepository.findById(orderId);
+        if (status.isPresent()) {
+            return status;
+        }
+
+        List<Payment> attempts = paymentRepository.findByOrderIdOrderByCreatedAtDesc(orderId);
+        if (attempts.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Payment latest = attempts.get(0);
+        jdbcTemplate.update("INSERT IGNORE INTO order_payment_status " +
+                        "(order_id, payment_id, status, transaction_id, attempts, updated_at) VALUES (?, ?, ?, ?, ?, ?)",
+                orderId, latest.getPaymentId(), latest.getStatus().name(), latest.getTransactionId(),
+                attempts.size(), LocalDateTime.now());
+        log.info("Backfilled payment status read model for order: {}", orderId);
+
+        return orderPaymentStatusRepository.findById(orderId);
+    }
+
+    private void evictAfterCompletion(String orderId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(orderId);
+                }
+            });
+        } else {
+            evict(orderId);
+        }
+    }
+
+    private void evict(String orderId) {
+        entityManagerFactory.getCache().evict(OrderPaymentStatus.class, orderId);
+    }
+}
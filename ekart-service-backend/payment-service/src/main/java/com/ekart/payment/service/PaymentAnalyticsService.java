@@ -0,0 +1,108 @@
+package com.ekart.payment.service;
+
+import com.ekart.payment.dto.RevenueBucketDto;
+import com.ekart.payment.dto.RevenueReportDto;
+import com.ekart.payment.entity.Payment;
+import com.ekart.payment.entity.RevenueRollup;
+import com.ekart.payment.repository.PaymentPartitionManager;
+import com.ekart.payment.repository.RevenueRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentAnalyticsService {
+
+    private final RevenueRollupRepository rollupRepository;
+    private final RevenueRollupAggregator rollupAggregator;
+    private final PaymentPartitionManager partitionManager;
+
+    // Answered at hour resolution, widened to the whole hours covering [from, to); the report carries
+    // the range actually used. Whole days come from daily buckets, the ragged ends from hourly ones.
+    @Transactional(readOnly = true)
+    public RevenueReportDto getRevenue(LocalDateTime from, LocalDateTime to, Payment.PaymentStatus status) {
+        LocalDateTime start = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.HOURS).equals(to) ? to : to.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        validateRange(start, end);
+
+        LocalDateTime firstDay = start.truncatedTo(ChronoUnit.DAYS).equals(start)
+                ? start
+                : start.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+        LocalDateTime lastDay = end.truncatedTo(ChronoUnit.DAYS);
+
+        List<RevenueRollup> buckets = new ArrayList<>();
+        if (firstDay.isBefore(lastDay)) {
+            buckets.addAll(rollupRepository.findBuckets(RevenueRollup.Granularity.HOURLY, start, firstDay));
+            buckets.addAll(rollupRepository.findBuckets(RevenueRollup.Granularity.DAILY, firstDay, lastDay));
+            buckets.addAll(rollupRepository.findBuckets(RevenueRollup.Granularity.HOURLY, lastDay, end));
+        } else {
+            buckets.addAll(rollupRepository.findBuckets(RevenueRollup.Granularity.HOURLY, start, end));
+        }
+
+        Map<List<Object>, RevenueReportDto.Breakdown> totals = new LinkedHashMap<>();
+        for (RevenueRollup bucket : buckets) {
+            if (status != null && bucket.getStatus() != status) {
+                continue;
+            }
+            RevenueReportDto.Breakdown total = totals.computeIfAbsent(
+                    List.of(bucket.getStatus(), bucket.getPaymentMethod(), bucket.getCurrency()),
+                    key -> new RevenueReportDto.Breakdown(bucket.getStatus(), bucket.getPaymentMethod(),
+                            bucket.getCurrency(), 0, BigDecimal.ZERO));
+            total.setPaymentCount(total.getPaymentCount() + bucket.getPaymentCount());
+            total.setTotalAmount(total.getTotalAmount().add(bucket.getTotalAmount()));
+        }
+
+        List<RevenueReportDto.Breakdown> breakdown = totals.values().stream()
+                .filter(total -> total.getPaymentCount() != 0)
+                .toList();
+
+        return new RevenueReportDto(start, end, breakdown);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RevenueBucketDto> getRevenueSeries(RevenueRollup.Granularity granularity,
+                                                   LocalDateTime from, LocalDateTime to,
+                                                   Payment.PaymentStatus status) {
+        LocalDateTime start = RevenueRollupAggregator.bucketStart(granularity, from);
+        validateRange(start, to);
+
+        return rollupRepository.findBuckets(granularity, start, to).stream()
+                .filter(bucket -> status == null || bucket.getStatus() == status)
+                .filter(bucket -> bucket.getPaymentCount() != 0)
+                .map(bucket -> new RevenueBucketDto(bucket.getBucketStart(), bucket.getStatus(),
+                        bucket.getPaymentMethod(), bucket.getCurrency(),
+                        bucket.getPaymentCount(), bucket.getTotalAmount()))
+                .toList();
+    }
+
+    public int rebuildRollups(LocalDateTime from, LocalDateTime to) {
+        validateRange(from, to);
+        // Archived partitions are no longer in payments, rebuilding them would wipe their history
+        if (from.isBefore(partitionManager.retentionStart())) {
+            throw new RuntimeException("Cannot rebuild rollups before " + partitionManager.retentionStart()
+                    + ", older payments have been archived");
+        }
+        log.info("Rebuilding revenue rollups from {} to {}", from, to);
+        return rollupAggregator.rebuild(from, to);
+    }
+
+    private void validateRange(LocalDateTime from, LocalDateTime to) {
+        Objects.requireNonNull(from, "from is required");
+        Objects.requireNonNull(to, "to is required");
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("Range start must be before range end");
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.ekart.payment.service;
+
+import com.ekart.common.events.order.OrderCreatedEvent;
+import com.ekart.payment.dto.LoadTestReportDto;
+import com.ekart.payment.dto.LoadTestRequestDto;
+import com.ekart.payment.entity.Payment;
+import com.ekart.payment.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives handleOrderCreated with synthetic orders at a fixed arrival rate. Creates real payment
+// rows, so it is only enabled with payment.load-test.enabled in test environments.
+@Service
+@ConditionalOnProperty(name = "payment.load-test.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentLoadTestService {
+
+    private static final int MAX_REQUESTS = 1_000_000;
+    private static final int COUNT_BATCH_SIZE = 1000;
+
+    private final PaymentService paymentService;
+    private final PaymentRepository paymentRepository;
+
+    public synchronized LoadTestReportDto run(LoadTestRequestDto request) {
+        int total = (int) Math.min(MAX_REQUESTS, Math.round(request.getRatePerSecond() * request.getDurationSeconds()));
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / request.getRatePerSecond());
+        long[] latencies = new long[total];
+        String[] orderIds = new String[total];
+
+        log.info("Starting payment load test: {} orders at {}/s with {} workers",
+                total, request.getRatePerSecond(), request.getConcurrency());
+
+        ExecutorService workers = Executors.newFixedThreadPool(request.getConcurrency(),
+                new CustomizableThreadFactory("payment-load-test-"));
+        long start = System.nanoTime();
+        try {
+            // Open loop: arrivals follow the schedule regardless of how fast earlier orders complete
+            for (int i = 0; i < total; i++) {
+                long scheduledAt = start + i * intervalNanos;
+                long wait = scheduledAt - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                int index = i;
+                orderIds[index] = "load-test-" + UUID.randomUUID();
+                workers.execute(() -> {
+                    try {
+                        paymentService.handleOrderCreated(syntheticOrder(request, orderIds[index]));
+                    } catch (Exception e) {
+                        log.debug("Load test order: {} failed", orderIds[index], e);
+                    } finally {
+                        latencies[index] = System.nanoTime() - scheduledAt;
+                    }
+                });
+            }
+        } finally {
+            workers.shutdown();
+        }
+
+        try {
+            if (!workers.awaitTermination(request.getDurationSeconds() + 300L, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+                throw new RuntimeException("Load test did not drain in time");
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Load test interrupted");
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        Arrays.sort(latencies);
+
+        // handleOrderCreated records failures on the payment instead of throwing, so outcomes are read back
+        Map<Payment.PaymentStatus, Integer> outcomes = countOutcomes(orderIds);
+        int completed = outcomes.getOrDefault(Payment.PaymentStatus.COMPLETED, 0);
+        int pending = outcomes.getOrDefault(Payment.PaymentStatus.PROCESSING, 0);
+
+        LoadTestReportDto report = new LoadTestReportDto(
+                total,
+                completed,
+                total - completed - pending,
+                pending,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                total * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos,
+                percentileMillis(latencies, 0.50),
+                percentileMillis(latencies, 0.90),
+                percentileMillis(latencies, 0.99),
+                percentileMillis(latencies, 0.999),
+                percentileMillis(latencies, 1.0));
+
+        log.info("Payment load test finished: {}", report);
+        return report;
+    }
+
+    private Map<Payment.PaymentStatus, Integer> countOutcomes(String[] orderIds) {
+        Map<Payment.PaymentStatus, Integer> outcomes = new EnumMap<>(Payment.PaymentStatus.class);
+        for (int from = 0; from < orderIds.length; from += COUNT_BATCH_SIZE) {
+            List<String> batch = Arrays.asList(orderIds).subList(from, Math.min(from + COUNT_BATCH_SIZE, orderIds.length));
+            for (Payment payment : paymentRepository.findByOrderIdIn(batch)) {
+                outcomes.merge(payment.getStatus(), 1, Integer::sum);
+            }
+        }
+        return outcomes;
+    }
+
+    private OrderCreatedEvent syntheticOrder(LoadTestRequestDto request, String orderId) {
+        OrderCreatedEvent event = new OrderCreatedEvent();
+        event.setEventId(UUID.randomUUID().toString());
+        event.setEventType("ORDER_CREATED");
+        event.setTimestamp(LocalDateTime.now());
+        event.setUserId("load-test");
+        event.setOrderId(orderId);
+        event.setTotalAmount(request.getAmount());
+        event.setItems(List.of());
+        return event;
+    }
+
+    // Nearest-rank percentile over sorted latencies
+    private double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sortedNanos.length);
+        return sortedNanos[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+}
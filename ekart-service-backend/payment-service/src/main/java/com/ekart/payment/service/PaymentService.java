@@ -1,11 +1,16 @@
 package com.ekart.payment.service;
 
+import com.ekart.common.events.dedup.EventDeduplicator;
 import com.ekart.common.events.order.OrderCreatedEvent;
 import com.ekart.common.events.payment.PaymentProcessedEvent;
+import com.ekart.common.events.payment.PaymentRefundRequestedEvent;
+import com.ekart.payment.dto.OrderPaymentStatusDto;
 import com.ekart.payment.dto.PaymentRequestDto;
 import com.ekart.payment.dto.PaymentResponseDto;
+import com.ekart.payment.entity.OrderPaymentStatus;
 import com.ekart.payment.entity.Payment;
 import com.ekart.payment.gateway.PaymentGateway;
+import com.ekart.payment.gateway.PaymentMethodBulkheads;
 import com.ekart.payment.repository.PaymentRepository;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
@@ -20,6 +25,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -29,7 +35,12 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final PaymentGateway paymentGateway;
+    private final PaymentMethodBulkheads paymentMethodBulkheads;
+    private final SettlementBatcher settlementBatcher;
+    private final VelocityChecker velocityChecker;
+    private final OrderPaymentStatusProjector orderPaymentStatusProjector;
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final EventDeduplicator eventDeduplicator;
 
     @Transactional
     @CircuitBreaker(name = "payment-service", fallbackMethod = "processPaymentFallback")
@@ -50,11 +61,33 @@ public class PaymentService {
         payment.setPaymentMethod(paymentRequest.getPaymentMethod());
         payment.setStatus(Payment.PaymentStatus.PROCESSING);
         
+        // Screen for card-testing and velocity abuse before anything reaches the gateway
+        VelocityChecker.RiskDecision riskDecision = velocityChecker.screen(userId, paymentRequest);
+        if (riskDecision.getAction() != null) {
+            payment.setRiskFlags(String.join(",", riskDecision.getTriggeredRules()));
+        }
+        if (riskDecision.isRejected()) {
+            log.warn("Payment for order: {} rejected by risk rules {}", paymentRequest.getOrderId(), riskDecision.getTriggeredRules());
+            payment.setStatus(Payment.PaymentStatus.FAILED);
+            payment.setFailureReason("Rejected by risk screening");
+            return convertToDto(paymentRepository.save(payment));
+        }
+        if (riskDecision.isFlagged()) {
+            log.warn("Payment for order: {} flagged by risk rules {}", paymentRequest.getOrderId(), riskDecision.getTriggeredRules());
+        }
+        
         payment = paymentRepository.save(payment);
         
+        // Batched methods settle asynchronously; the client polls the payment status
+        if (settlementBatcher.submit(paymentId, paymentRequest)) {
+            log.info("Payment {} for order: {} queued for batch settlement", paymentId, paymentRequest.getOrderId());
+            return convertToDto(payment);
+        }
+        
         try {
             // Process payment through gateway
-            PaymentGateway.PaymentResult result = paymentGateway.processPayment(paymentRequest);
+            PaymentGateway.PaymentResult result = paymentMethodBulkheads.execute(paymentRequest,
+                    () -> paymentGateway.processPayment(paymentId, paymentRequest));
             
             // Update payment status
             payment.setStatus(result.isSuccess() ? Payment.PaymentStatus.COMPLETED : Payment.PaymentStatus.FAILED);
@@ -85,6 +118,11 @@ public class PaymentService {
     public void handleOrderCreated(OrderCreatedEvent event) {
         log.info("Received order created event for order: {}", event.getOrderId());
         
+        if (!eventDeduplicator.claim("payment-service.order-created", event)) {
+            return;
+        }
+        
+        Payment payment = null;
         try {
             // Create payment request from order
             PaymentRequestDto paymentRequest = new PaymentRequestDto();
@@ -93,7 +131,7 @@ public class PaymentService {
             paymentRequest.setPaymentMethod(Payment.PaymentMethod.CREDIT_CARD); // Default
             
             // Create payment record
-            Payment payment = new Payment();
+            payment = new Payment();
             payment.setPaymentId(UUID.randomUUID().toString());
             payment.setOrderId(event.getOrderId());
             payment.setUserId(event.getUserId());
@@ -104,8 +142,16 @@ public class PaymentService {
             
             payment = paymentRepository.save(payment);
             
+            // The batcher publishes the payment processed event once the batch settles
+            if (settlementBatcher.submit(payment.getPaymentId(), paymentRequest)) {
+                log.info("Payment for order: {} queued for batch settlement", event.getOrderId());
+                return;
+            }
+            
             // Simulate payment processing
-            PaymentGateway.PaymentResult result = paymentGateway.processPayment(paymentRequest);
+            String paymentId = payment.getPaymentId();
+            PaymentGateway.PaymentResult result = paymentMethodBulkheads.execute(paymentRequest,
+                    () -> paymentGateway.processPayment(paymentId, paymentRequest));
             
             // Update payment status
             payment.setStatus(result.isSuccess() ? Payment.PaymentStatus.COMPLETED : Payment.PaymentStatus.FAILED);
@@ -128,6 +174,7 @@ public class PaymentService {
             paymentEvent.setPaymentMethod(payment.getPaymentMethod().name());
             paymentEvent.setStatus(payment.getStatus() == Payment.PaymentStatus.COMPLETED ? "SUCCESS" : "FAILED");
             paymentEvent.setTransactionId(payment.getTransactionId());
+            paymentEvent.setRetryable(result.isRetryable());
             
             kafkaTemplate.send("payment-processed-topic", paymentEvent);
             
@@ -136,6 +183,13 @@ public class PaymentService {
         } catch (Exception e) {
             log.error("Error processing payment for order: {}", event.getOrderId(), e);
             
+            // Don't leave the saved attempt in PROCESSING once its failure has been published
+            if (payment != null && payment.getId() != null) {
+                payment.setStatus(Payment.PaymentStatus.FAILED);
+                payment.setFailureReason(e.getMessage());
+                paymentRepository.save(payment);
+            }
+            
             // Publish failed payment event
             PaymentProcessedEvent paymentEvent = new PaymentProcessedEvent();
             paymentEvent.setEventId(UUID.randomUUID().toString());
@@ -143,6 +197,9 @@ public class PaymentService {
             paymentEvent.setTimestamp(LocalDateTime.now());
             paymentEvent.setSagaId(event.getSagaId());
             paymentEvent.setUserId(event.getUserId());
+            if (payment != null && payment.getId() != null) {
+                paymentEvent.setPaymentId(payment.getPaymentId());
+            }
             paymentEvent.setOrderId(event.getOrderId());
             paymentEvent.setAmount(event.getTotalAmount());
             paymentEvent.setStatus("FAILED");
@@ -167,12 +224,27 @@ public class PaymentService {
     public PaymentResponseDto getPaymentByOrderId(String orderId) {
         log.info("Retrieving payment for order: {}", orderId);
         
-        Payment payment = paymentRepository.findByOrderId(orderId)
+        // An order can have several attempts; the read model points at the latest one
+        OrderPaymentStatus latest = orderPaymentStatusProjector.find(orderId)
+                .orElseThrow(() -> new RuntimeException("Payment not found for order: " + orderId));
+        Payment payment = paymentRepository.findByPaymentId(latest.getPaymentId())
                 .orElseThrow(() -> new RuntimeException("Payment not found for order: " + orderId));
         
         return convertToDto(payment);
     }
 
+    @CircuitBreaker(name = "payment-service", fallbackMethod = "getPaymentStatusByOrderIdFallback")
+    @Retry(name = "payment-service")
+    public OrderPaymentStatusDto getPaymentStatusByOrderId(String orderId) {
+        log.info("Retrieving payment status for order: {}", orderId);
+        
+        OrderPaymentStatus status = orderPaymentStatusProjector.find(orderId)
+                .orElseThrow(() -> new RuntimeException("Payment not found for order: " + orderId));
+        
+        return new OrderPaymentStatusDto(status.getOrderId(), status.getPaymentId(), status.getStatus(),
+                status.getTransactionId(), status.getAttempts(), status.getUpdatedAt());
+    }
+
     @CircuitBreaker(name = "payment-service", fallbackMethod = "getUserPaymentsFallback")
     @Retry(name = "payment-service")
     public Page<PaymentResponseDto> getUserPayments(String userId, Pageable pageable) {
@@ -186,7 +258,7 @@ public class PaymentService {
     @CircuitBreaker(name = "payment-service", fallbackMethod = "refundPaymentFallback")
     @Retry(name = "payment-service")
     public PaymentResponseDto refundPayment(String paymentId) {
-        log.info("Processing refund for payment: {}", paymentId);
+        log.info("Requesting refund for payment: {}", paymentId);
         
         Payment payment = paymentRepository.findByPaymentId(paymentId)
                 .orElseThrow(() -> new RuntimeException("Payment not found with ID: " + paymentId));
@@ -195,25 +267,43 @@ public class PaymentService {
             throw new RuntimeException("Cannot refund payment that is not completed");
         }
         
-        try {
-            // Process refund through gateway
-            boolean refundSuccess = paymentGateway.refundPayment(payment.getTransactionId());
-            
-            if (refundSuccess) {
-                payment.setStatus(Payment.PaymentStatus.REFUNDED);
-                payment = paymentRepository.save(payment);
-                
-                log.info("Refund processed successfully for payment: {}", paymentId);
-            } else {
-                throw new RuntimeException("Refund failed at gateway");
-            }
-            
-            return convertToDto(payment);
-            
-        } catch (Exception e) {
-            log.error("Refund processing failed for payment: {}", paymentId, e);
-            throw new RuntimeException("Refund processing failed: " + e.getMessage());
+        // Settled asynchronously by RefundProcessor, which publishes the refunded event
+        payment.setStatus(Payment.PaymentStatus.REFUND_PENDING);
+        payment = paymentRepository.save(payment);
+        
+        log.info("Refund queued for payment: {}", paymentId);
+        
+        return convertToDto(payment);
+    }
+
+    @KafkaListener(topics = "payment-refund-requested-topic")
+    @Transactional
+    public void handleRefundRequested(PaymentRefundRequestedEvent event) {
+        log.info("Received refund request for order: {} ({})", event.getOrderId(), event.getReason());
+        
+        if (!eventDeduplicator.claim("payment-service.refund-requested", event)) {
+            return;
+        }
+        
+        Optional<Payment> paymentOpt = event.getPaymentId() != null
+                ? paymentRepository.findByPaymentId(event.getPaymentId())
+                : orderPaymentStatusProjector.find(event.getOrderId())
+                        .flatMap(latest -> paymentRepository.findByPaymentId(latest.getPaymentId()));
+        if (paymentOpt.isEmpty()) {
+            log.error("No payment found to refund for order: {}", event.getOrderId());
+            return;
+        }
+        
+        Payment payment = paymentOpt.get();
+        if (payment.getStatus() != Payment.PaymentStatus.COMPLETED) {
+            log.warn("Ignoring refund request for payment: {} in status {}", payment.getPaymentId(), payment.getStatus());
+            return;
         }
+        
+        payment.setStatus(Payment.PaymentStatus.REFUND_PENDING);
+        paymentRepository.save(payment);
+        
+        log.info("Refund queued for payment: {}", payment.getPaymentId());
     }
 
     private PaymentResponseDto convertToDto(Payment payment) {
@@ -253,6 +343,11 @@ public class PaymentService {
         throw new RuntimeException("Payment retrieval service is temporarily unavailable");
     }
 
+    public OrderPaymentStatusDto getPaymentStatusByOrderIdFallback(String orderId, Exception ex) {
+        log.error("Circuit breaker activated for get payment status by order ID: {}", ex.getMessage());
+        throw new RuntimeException("Payment retrieval service is temporarily unavailable");
+    }
+
     public Page<PaymentResponseDto> getUserPaymentsFallback(String userId, Pageable pageable, Exception ex) {
         log.error("Circuit breaker activated for get user payments: {}", ex.getMessage());
         throw new RuntimeException("Payment retrieval service is temporarily unavailable");
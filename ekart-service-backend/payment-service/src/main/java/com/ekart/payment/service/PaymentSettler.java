@@ -0,0 +1,74 @@
+package com.ekart.payment.service;
+
+import com.ekart.common.events.payment.PaymentProcessedEvent;
+import com.ekart.payment.entity.Payment;
+import com.ekart.payment.gateway.PaymentGateway;
+import com.ekart.payment.repository.PaymentRepository;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Applies gateway outcomes to payments settled outside the request thread
+@Component
+public class PaymentSettler {
+
+    private final PaymentRepository paymentRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public PaymentSettler(PaymentRepository paymentRepository,
+                          KafkaTemplate<String, Object> kafkaTemplate,
+                          PlatformTransactionManager transactionManager) {
+        this.paymentRepository = paymentRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Payments no longer PROCESSING were settled by someone else and are left untouched. The rows are
+    // locked while read, so the batcher and the reconciler cannot both settle and publish the same payment.
+    public List<Payment> settle(Map<String, PaymentGateway.PaymentResult> resultsByPaymentId) {
+        List<Payment> settled = transactionTemplate.execute(status -> {
+            List<Payment> payments = paymentRepository.findByPaymentIdInAndStatusForUpdate(
+                    resultsByPaymentId.keySet(), Payment.PaymentStatus.PROCESSING);
+            for (Payment payment : payments) {
+                PaymentGateway.PaymentResult result = resultsByPaymentId.get(payment.getPaymentId());
+                payment.setStatus(result.isSuccess() ? Payment.PaymentStatus.COMPLETED : Payment.PaymentStatus.FAILED);
+                payment.setTransactionId(result.getTransactionId());
+                payment.setGatewayResponse(result.getGatewayResponse());
+                payment.setFailureReason(result.getFailureReason());
+            }
+            return paymentRepository.saveAll(payments);
+        });
+
+        settled.forEach(this::publishProcessed);
+        return settled;
+    }
+
+    // Only saga-driven payments have someone waiting on the outcome
+    private void publishProcessed(Payment payment) {
+        if (payment.getSagaId() == null) {
+            return;
+        }
+
+        PaymentProcessedEvent paymentEvent = new PaymentProcessedEvent();
+        paymentEvent.setEventId(UUID.randomUUID().toString());
+        paymentEvent.setEventType("PAYMENT_PROCESSED");
+        paymentEvent.setTimestamp(LocalDateTime.now());
+        paymentEvent.setSagaId(payment.getSagaId());
+        paymentEvent.setUserId(payment.getUserId());
+        paymentEvent.setPaymentId(payment.getPaymentId());
+        paymentEvent.setOrderId(payment.getOrderId());
+        paymentEvent.setAmount(payment.getAmount());
+        paymentEvent.setPaymentMethod(payment.getPaymentMethod().name());
+        paymentEvent.setStatus(payment.getStatus() == Payment.PaymentStatus.COMPLETED ? "SUCCESS" : "FAILED");
+        paymentEvent.setTransactionId(payment.getTransactionId());
+
+        kafkaTemplate.send("payment-processed-topic", paymentEvent);
+    }
+}
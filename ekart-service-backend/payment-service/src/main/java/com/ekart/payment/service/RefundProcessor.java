@@ -0,0 +1,172 @@
+package com.ekart.payment.service;
+
+import com.ekart.common.events.payment.PaymentRefundedEvent;
+import com.ekart.payment.entity.Payment;
+import com.ekart.payment.gateway.PaymentGateway;
+import com.ekart.payment.repository.PaymentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Slf4j
+public class RefundProcessor {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentGateway paymentGateway;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${payment.refund.workers:4}")
+    private int workers;
+
+    @Value("${payment.refund.batch-size:20}")
+    private int batchSize;
+
+    // A claimed refund that is not settled within this time is claimed again
+    @Value("${payment.refund.claim-timeout:5m}")
+    private Duration claimTimeout;
+
+    private ExecutorService workerPool;
+
+    private final AtomicInteger busyWorkers = new AtomicInteger();
+
+    public RefundProcessor(PaymentRepository paymentRepository,
+                           PaymentGateway paymentGateway,
+                           KafkaTemplate<String, Object> kafkaTemplate,
+                           PlatformTransactionManager transactionManager) {
+        this.paymentRepository = paymentRepository;
+        this.paymentGateway = paymentGateway;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void start() {
+        workerPool = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("refund-worker-"));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        workerPool.shutdown();
+        if (!workerPool.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Refund workers did not finish in time, unsettled refunds will be reclaimed after restart");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.refund.poll-interval:500}")
+    public void dispatchPendingRefunds() {
+        int idleWorkers = workers - busyWorkers.get();
+        if (idleWorkers <= 0) {
+            return;
+        }
+
+        List<Payment> claimed = transactionTemplate.execute(status -> claimRefunds(idleWorkers * batchSize));
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        for (int from = 0; from < claimed.size(); from += batchSize) {
+            List<Payment> batch = claimed.subList(from, Math.min(from + batchSize, claimed.size()));
+            busyWorkers.incrementAndGet();
+            workerPool.execute(() -> {
+                try {
+                    processBatch(batch);
+                } finally {
+                    busyWorkers.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private List<Payment> claimRefunds(int limit) {
+        List<Payment> payments = paymentRepository.findRefundsToClaim(
+                Payment.PaymentStatus.REFUND_PENDING,
+                Payment.PaymentStatus.REFUND_PROCESSING,
+                LocalDateTime.now().minus(claimTimeout),
+                PageRequest.of(0, limit));
+        String claimId = UUID.randomUUID().toString();
+        payments.forEach(payment -> {
+            payment.setStatus(Payment.PaymentStatus.REFUND_PROCESSING);
+            payment.setRefundClaimId(claimId);
+        });
+        return paymentRepository.saveAll(payments);
+    }
+
+    private void processBatch(List<Payment> batch) {
+        List<Boolean> outcomes;
+        try {
+            // Keyed by payment, so a batch retried after a lost response is not refunded twice
+            outcomes = paymentGateway.refundBatch(
+                    batch.stream().map(Payment::getTransactionId).toList(),
+                    batch.stream().map(Payment::getPaymentId).toList());
+        } catch (Exception e) {
+            // Left in REFUND_PROCESSING and retried once the claim expires
+            log.error("Gateway refund batch failed for {} payments", batch.size(), e);
+            return;
+        }
+
+        Map<String, Boolean> outcomesByPaymentId = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            outcomesByPaymentId.put(batch.get(i).getPaymentId(), outcomes.get(i));
+        }
+        String claimId = batch.get(0).getRefundClaimId();
+
+        List<Payment> settled = transactionTemplate.execute(status -> {
+            // Rows whose claim expired and were claimed again belong to the newer claim
+            List<Payment> payments = paymentRepository.findByPaymentIdInAndStatusForUpdate(
+                            outcomesByPaymentId.keySet(), Payment.PaymentStatus.REFUND_PROCESSING).stream()
+                    .filter(payment -> claimId.equals(payment.getRefundClaimId()))
+                    .toList();
+            for (Payment payment : payments) {
+                if (outcomesByPaymentId.get(payment.getPaymentId())) {
+                    payment.setStatus(Payment.PaymentStatus.REFUNDED);
+                } else {
+                    payment.setStatus(Payment.PaymentStatus.REFUND_FAILED);
+                    payment.setFailureReason("Refund declined by gateway");
+                }
+            }
+            return paymentRepository.saveAll(payments);
+        });
+
+        for (Payment payment : settled) {
+            kafkaTemplate.send("payment-refunded-topic", toRefundedEvent(payment));
+        }
+
+        log.info("Settled batch of {} refunds", settled.size());
+    }
+
+    private PaymentRefundedEvent toRefundedEvent(Payment payment) {
+        PaymentRefundedEvent refundEvent = new PaymentRefundedEvent();
+        refundEvent.setEventId(UUID.randomUUID().toString());
+        refundEvent.setEventType("PAYMENT_REFUNDED");
+        refundEvent.setTimestamp(LocalDateTime.now());
+        refundEvent.setSagaId(payment.getSagaId());
+        refundEvent.setUserId(payment.getUserId());
+        refundEvent.setPaymentId(payment.getPaymentId());
+        refundEvent.setOrderId(payment.getOrderId());
+        refundEvent.setAmount(payment.getAmount());
+        refundEvent.setStatus(payment.getStatus() == Payment.PaymentStatus.REFUNDED ? "SUCCESS" : "FAILED");
+        refundEvent.setTransactionId(payment.getTransactionId());
+        return refundEvent;
+    }
+}
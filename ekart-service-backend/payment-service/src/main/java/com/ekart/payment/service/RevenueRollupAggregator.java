@@ -0,0 +1,178 @@
+package com.ekart.payment.service;
+
+import com.ekart.payment.entity.Payment;
+import com.ekart.payment.entity.RevenueRollup;
+import com.ekart.payment.repository.RevenueRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+public class RevenueRollupAggregator {
+
+    private final RevenueRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${payment.rollup.flush-interval:5000}")
+    private long flushIntervalMillis;
+
+    // A day is only rebuilt once it ended at least this long ago, so it no longer takes new payments
+    @Value("${payment.rollup.rebuild-settle-time:1h}")
+    private Duration rebuildSettleTime;
+
+    // Committed deltas not yet written, merged per bucket so hot buckets cost one upsert per flush
+    private final Map<BucketKey, BucketDelta> pending = new ConcurrentHashMap<>();
+
+    public RevenueRollupAggregator(RevenueRollupRepository rollupRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Moves the payment from its previous status bucket (if any) to its current one
+    public void recordTransition(Payment payment, Payment.PaymentStatus previousStatus) {
+        List<Map.Entry<BucketKey, BucketDelta>> deltas = new ArrayList<>(4);
+        BucketDelta added = new BucketDelta(1, payment.getAmount());
+        BucketDelta removed = new BucketDelta(-1, payment.getAmount().negate());
+
+        for (RevenueRollup.Granularity granularity : RevenueRollup.Granularity.values()) {
+            LocalDateTime bucketStart = bucketStart(granularity, payment.getCreatedAt());
+            deltas.add(Map.entry(new BucketKey(granularity, bucketStart, payment.getStatus(),
+                    payment.getPaymentMethod(), payment.getCurrency()), added));
+            if (previousStatus != null) {
+                deltas.add(Map.entry(new BucketKey(granularity, bucketStart, previousStatus,
+                        payment.getPaymentMethod(), payment.getCurrency()), removed));
+            }
+        }
+
+        // A rolled-back transition must not be counted
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deltas.forEach(delta -> pending.merge(delta.getKey(), delta.getValue(), BucketDelta::plus));
+                }
+            });
+        } else {
+            deltas.forEach(delta -> pending.merge(delta.getKey(), delta.getValue(), BucketDelta::plus));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payment.rollup.flush-interval:5000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<BucketKey, BucketDelta> drained = new HashMap<>();
+        for (BucketKey key : pending.keySet()) {
+            BucketDelta delta = pending.remove(key);
+            if (delta != null && !delta.isEmpty()) {
+                drained.put(key, delta);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> drained.forEach((key, delta) ->
+                    rollupRepository.applyDelta(key.getGranularity().name(), key.getBucketStart(),
+                            key.getStatus().name(), key.getPaymentMethod().name(), key.getCurrency(),
+                            delta.getCount(), delta.getAmount())));
+        } catch (Exception e) {
+            log.error("Failed to flush {} revenue rollup buckets, retrying on next flush", drained.size(), e);
+            drained.forEach((key, delta) -> pending.merge(key, delta, BucketDelta::plus));
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Recomputes the closed buckets in [from, to) from the payments table, for backfills and repairs.
+    // Open buckets take deltas all the time, so the range is cut off at the last closed day. Older
+    // payments still change status, e.g. when refunded, so the rebuild is fenced: it first locks the
+    // payments in range, which holds back further transitions until it commits, then waits for every
+    // instance to flush the deltas of transitions committed before the lock.
+    public synchronized int rebuild(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from.truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime end = to.truncatedTo(ChronoUnit.DAYS).equals(to) ? to : to.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+
+        LocalDateTime closedBefore = LocalDateTime.now().minus(rebuildSettleTime).truncatedTo(ChronoUnit.DAYS);
+        if (end.isAfter(closedBefore)) {
+            log.info("Revenue rollup rebuild limited to buckets before {}, later ones are still open", closedBefore);
+            end = closedBefore;
+        }
+        if (!start.isBefore(end)) {
+            throw new RuntimeException("Only revenue rollups before " + closedBefore + " can be rebuilt");
+        }
+        LocalDateTime rebuildEnd = end;
+
+        Integer rows = transactionTemplate.execute(status -> {
+            rollupRepository.lockPayments(start, rebuildEnd);
+            // Joins this transaction, so the buckets written here are recomputed below
+            flush();
+            awaitFlushElsewhere();
+            rollupRepository.deleteBuckets(start, rebuildEnd);
+            return rollupRepository.rebuildHourly(start, rebuildEnd) + rollupRepository.rebuildDaily(start, rebuildEnd);
+        });
+
+        log.info("Rebuilt revenue rollups for [{}, {}) with {} buckets", start, end, rows);
+        return rows;
+    }
+
+    // Two intervals cover a flush that was already running when the payments were locked
+    private void awaitFlushElsewhere() {
+        try {
+            Thread.sleep(2 * flushIntervalMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for revenue rollup deltas to be flushed");
+        }
+    }
+
+    public static LocalDateTime bucketStart(RevenueRollup.Granularity granularity, LocalDateTime time) {
+        return granularity == RevenueRollup.Granularity.HOURLY
+                ? time.truncatedTo(ChronoUnit.HOURS)
+                : time.truncatedTo(ChronoUnit.DAYS);
+    }
+
+    @lombok.Value
+    private static class BucketKey {
+        RevenueRollup.Granularity granularity;
+        LocalDateTime bucketStart;
+        Payment.PaymentStatus status;
+        Payment.PaymentMethod paymentMethod;
+        String currency;
+    }
+
+    @lombok.Value
+    private static class BucketDelta {
+        long count;
+        BigDecimal amount;
+
+        BucketDelta plus(BucketDelta other) {
+            return new BucketDelta(count + other.count, amount.add(other.amount));
+        }
+
+        boolean isEmpty() {
+            return count == 0 && amount.signum() == 0;
+        }
+    }
+}
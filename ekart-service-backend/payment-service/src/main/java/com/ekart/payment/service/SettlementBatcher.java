@@ -0,0 +1,182 @@
+package com.ekart.payment.service;
+
+import com.ekart.payment.dto.PaymentRequestDto;
+import com.ekart.payment.entity.Payment;
+import com.ekart.payment.gateway.PaymentGateway;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SettlementBatcher {
+
+    private final PaymentGateway paymentGateway;
+    private final PaymentSettler paymentSettler;
+
+    @Value("${payment.settlement.batch.methods:}")
+    private List<Payment.PaymentMethod> batchedMethods;
+
+    @Value("${payment.settlement.batch.max-size:50}")
+    private int maxSize;
+
+    @Value("${payment.settlement.batch.max-wait:200ms}")
+    private Duration maxWait;
+
+    @Value("${payment.settlement.batch.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private final Map<Payment.PaymentMethod, BlockingQueue<PendingSettlement>> queues =
+            new EnumMap<>(Payment.PaymentMethod.class);
+
+    // Capacity is reserved at submit time so a committed payment always has a queue slot
+    private final Map<Payment.PaymentMethod, Semaphore> slots = new EnumMap<>(Payment.PaymentMethod.class);
+
+    private final List<Thread> flushers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (Payment.PaymentMethod method : batchedMethods) {
+            BlockingQueue<PendingSettlement> queue = new LinkedBlockingQueue<>();
+            Semaphore methodSlots = new Semaphore(queueCapacity);
+            queues.put(method, queue);
+            slots.put(method, methodSlots);
+
+            Thread flusher = new Thread(() -> runFlusher(method, queue, methodSlots),
+                    "settlement-batcher-" + method.name().toLowerCase());
+            flusher.start();
+            flushers.add(flusher);
+        }
+        log.info("Settlement batching enabled for {} (max size {}, max wait {})", batchedMethods, maxSize, maxWait);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread flusher : flushers) {
+            flusher.join(maxWait.toMillis() + 10_000);
+        }
+    }
+
+    public boolean supports(Payment.PaymentMethod method) {
+        return queues.containsKey(method);
+    }
+
+    // Returns false when the method is not batched or its queue is full, in which
+    // case the caller settles the payment synchronously
+    public boolean submit(String paymentId, PaymentRequestDto paymentRequest) {
+        Payment.PaymentMethod method = paymentRequest.getPaymentMethod();
+        BlockingQueue<PendingSettlement> queue = queues.get(method);
+        Semaphore methodSlots = slots.get(method);
+        if (queue == null || !running || !methodSlots.tryAcquire()) {
+            return false;
+        }
+
+        PendingSettlement pending = new PendingSettlement(paymentId, paymentRequest);
+
+        // The flusher loads the row by paymentId, so it must not see it before commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        queue.add(pending);
+                    } else {
+                        methodSlots.release();
+                    }
+                }
+            });
+        } else {
+            queue.add(pending);
+        }
+        return true;
+    }
+
+    private void runFlusher(Payment.PaymentMethod method, BlockingQueue<PendingSettlement> queue, Semaphore methodSlots) {
+        List<PendingSettlement> batch = new ArrayList<>(maxSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSettlement first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + maxWait.toNanos();
+                while (batch.size() < maxSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingSettlement next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                settle(method, batch);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Rows left in PROCESSING are picked up by stale payment reconciliation
+                log.error("Failed to settle batch of {} {} payments", batch.size(), method, e);
+            } finally {
+                methodSlots.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    private void settle(Payment.PaymentMethod method, List<PendingSettlement> batch) {
+        List<String> paymentIds = batch.stream().map(PendingSettlement::getPaymentId).toList();
+        List<PaymentRequestDto> requests = batch.stream().map(PendingSettlement::getPaymentRequest).toList();
+
+        List<PaymentGateway.PaymentResult> results;
+        try {
+            results = paymentGateway.processBatch(paymentIds, requests);
+        } catch (Exception e) {
+            // The gateway may have charged some of them, so they are not failed here; the rows stay
+            // PROCESSING for stale payment reconciliation to look up
+            log.error("Gateway batch call failed for {} {} payments, leaving them for reconciliation",
+                    batch.size(), method, e);
+            return;
+        }
+
+        Map<String, PaymentGateway.PaymentResult> resultsByPaymentId = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            resultsByPaymentId.put(batch.get(i).getPaymentId(), results.get(i));
+        }
+
+        List<Payment> settled = paymentSettler.settle(resultsByPaymentId);
+
+        log.info("Settled batch of {} {} payments", settled.size(), method);
+    }
+
+    @lombok.Value
+    private static class PendingSettlement {
+        String paymentId;
+        PaymentRequestDto paymentRequest;
+    }
+}
@@ -0,0 +1,68 @@
+package com.ekart.payment.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Lock-free attempt and amount counters over a sliding time window, kept as a ring of buckets.
+// Each slot packs the bucket's epoch in the high 32 bits and its value in the low 32 bits, so
+// rolling a stale bucket over and adding to it is a single compare-and-set.
+public class SlidingWindowCounter {
+
+    private static final long VALUE_MASK = 0xFFFFFFFFL;
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final AtomicLongArray attempts;
+    private final AtomicLongArray amounts;
+    private volatile long lastUpdatedMillis;
+
+    public SlidingWindowCounter(long windowMillis, int buckets) {
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        this.buckets = buckets;
+        this.attempts = new AtomicLongArray(buckets);
+        this.amounts = new AtomicLongArray(buckets);
+    }
+
+    public void record(long nowMillis, long amountCents) {
+        long epoch = nowMillis / bucketMillis;
+        int slot = (int) (epoch % buckets);
+        add(attempts, slot, epoch, 1);
+        add(amounts, slot, epoch, amountCents);
+        lastUpdatedMillis = nowMillis;
+    }
+
+    public long attempts(long nowMillis) {
+        return sum(attempts, nowMillis / bucketMillis);
+    }
+
+    public long amountCents(long nowMillis) {
+        return sum(amounts, nowMillis / bucketMillis);
+    }
+
+    public long getLastUpdatedMillis() {
+        return lastUpdatedMillis;
+    }
+
+    private void add(AtomicLongArray slots, int slot, long epoch, long delta) {
+        long tag = (epoch & VALUE_MASK) << 32;
+        while (true) {
+            long current = slots.get(slot);
+            long base = (current & ~VALUE_MASK) == tag ? current & VALUE_MASK : 0;
+            long updated = tag | Math.min(VALUE_MASK, base + delta);
+            if (slots.compareAndSet(slot, current, updated)) {
+                return;
+            }
+        }
+    }
+
+    private long sum(AtomicLongArray slots, long currentEpoch) {
+        long total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long value = slots.get(i);
+            long age = ((currentEpoch & VALUE_MASK) - (value >>> 32)) & VALUE_MASK;
+            if (age < buckets) {
+                total += value & VALUE_MASK;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,123 @@
+package com.ekart.payment.service;
+
+import com.ekart.payment.entity.Payment;
+import com.ekart.payment.gateway.PaymentGateway;
+import com.ekart.payment.repository.PaymentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StalePaymentReconciler {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentGateway paymentGateway;
+    private final PaymentSettler paymentSettler;
+
+    @Value("${payment.reconciliation.stale-after:15m}")
+    private Duration staleAfter;
+
+    // Payments stuck for longer than this are left for manual follow-up
+    @Value("${payment.reconciliation.max-age:30d}")
+    private Duration maxAge;
+
+    @Value("${payment.reconciliation.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${payment.reconciliation.parallelism:8}")
+    private int parallelism;
+
+    private ExecutorService lookupPool;
+
+    @PostConstruct
+    public void start() {
+        lookupPool = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("reconciliation-"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        lookupPool.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${payment.reconciliation.interval:60000}",
+               initialDelayString = "${payment.reconciliation.initial-delay:30000}")
+    public void reconcileStalePayments() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime createdAfter = now.minus(maxAge);
+        LocalDateTime cutoff = now.minus(staleAfter);
+        long afterId = 0;
+        int scanned = 0;
+        int completed = 0;
+        int failed = 0;
+
+        // Only one chunk is held at a time, however large the backlog
+        List<Payment> chunk;
+        do {
+            chunk = paymentRepository.findStalePayments(
+                    Payment.PaymentStatus.PROCESSING, createdAfter, cutoff, afterId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+            scanned += chunk.size();
+
+            for (Payment payment : paymentSettler.settle(lookupAll(chunk))) {
+                if (payment.getStatus() == Payment.PaymentStatus.COMPLETED) {
+                    completed++;
+                } else {
+                    failed++;
+                }
+            }
+        } while (chunk.size() == chunkSize);
+
+        if (scanned > 0) {
+            log.info("Reconciled stale payments: scanned {}, completed {}, failed {}, unresolved {}",
+                    scanned, completed, failed, scanned - completed - failed);
+        }
+    }
+
+    // Lookups run on the bounded pool; a payment whose lookup fails stays PROCESSING until the next run
+    private Map<String, PaymentGateway.PaymentResult> lookupAll(List<Payment> chunk) {
+        List<CompletableFuture<PaymentGateway.PaymentResult>> lookups = chunk.stream()
+                .map(payment -> CompletableFuture.supplyAsync(() -> lookup(payment), lookupPool))
+                .toList();
+
+        Map<String, PaymentGateway.PaymentResult> resultsByPaymentId = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                resultsByPaymentId.put(chunk.get(i).getPaymentId(), lookups.get(i).join());
+            } catch (CompletionException e) {
+                log.warn("Gateway lookup failed for payment: {}", chunk.get(i).getPaymentId(), e.getCause());
+            }
+        }
+        return resultsByPaymentId;
+    }
+
+    private PaymentGateway.PaymentResult lookup(Payment payment) {
+        return paymentGateway.lookupPayment(payment.getPaymentId()).orElseGet(() -> {
+            PaymentGateway.PaymentResult notFound = new PaymentGateway.PaymentResult();
+            notFound.setSuccess(false);
+            notFound.setFailureReason("Payment never reached the gateway");
+            notFound.setGatewayResponse("No matching transaction found during reconciliation");
+            return notFound;
+        });
+    }
+}
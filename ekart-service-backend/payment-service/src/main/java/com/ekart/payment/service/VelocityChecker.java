@@ -0,0 +1,154 @@
+package com.ekart.payment.service;
+
+import com.ekart.payment.config.RiskProperties;
+import com.ekart.payment.dto.PaymentRequestDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// Screens payments against per-user and per-card velocity rules using in-memory sliding windows,
+// so no database round trip is added in front of the gateway. Counters are per instance.
+@Component
+@EnableConfigurationProperties(RiskProperties.class)
+@Slf4j
+public class VelocityChecker {
+
+    private static final Pattern NON_DIGITS = Pattern.compile("\\D");
+
+    private final RiskProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Timer screenTimer;
+
+    // Indexed like properties.getRules(): user id or card fingerprint -> that key's window for the rule
+    private final List<Map<String, SlidingWindowCounter>> counters = new ArrayList<>();
+
+    private final long longestWindowMillis;
+
+    public VelocityChecker(RiskProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.screenTimer = Timer.builder("payment.risk.screen.duration")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        properties.getRules().forEach(rule -> counters.add(new ConcurrentHashMap<>()));
+        this.longestWindowMillis = properties.getRules().stream()
+                .map(RiskProperties.Rule::getWindow)
+                .mapToLong(Duration::toMillis)
+                .max()
+                .orElse(0);
+    }
+
+    // Every attempt is counted, including rejected ones, so a rejected burst keeps being rejected
+    public RiskDecision screen(String userId, PaymentRequestDto paymentRequest) {
+        if (!properties.isEnabled() || properties.getRules().isEmpty()) {
+            return RiskDecision.APPROVED;
+        }
+
+        long start = System.nanoTime();
+        try {
+            return evaluate(userId, paymentRequest);
+        } finally {
+            screenTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private RiskDecision evaluate(String userId, PaymentRequestDto paymentRequest) {
+        long now = System.currentTimeMillis();
+        long amountCents = paymentRequest.getAmount().movePointRight(2).longValue();
+        String cardKey = cardFingerprint(paymentRequest);
+
+        RiskProperties.Action action = null;
+        List<String> triggered = new ArrayList<>(2);
+
+        for (int i = 0; i < properties.getRules().size(); i++) {
+            RiskProperties.Rule rule = properties.getRules().get(i);
+            String key = rule.getKey() == RiskProperties.Key.USER ? userId : cardKey;
+            if (key == null) {
+                continue;
+            }
+
+            SlidingWindowCounter counter = counters.get(i).computeIfAbsent(key,
+                    k -> new SlidingWindowCounter(rule.getWindow().toMillis(), properties.getBuckets()));
+            counter.record(now, amountCents);
+
+            if (exceeds(rule, counter, now)) {
+                triggered.add(rule.getName());
+                if (action == null || rule.getAction() == RiskProperties.Action.REJECT) {
+                    action = rule.getAction();
+                }
+                meterRegistry.counter("payment.risk.triggered",
+                        "rule", rule.getName(), "action", rule.getAction().name()).increment();
+            }
+        }
+
+        if (action == null) {
+            return RiskDecision.APPROVED;
+        }
+        return new RiskDecision(action, List.copyOf(triggered));
+    }
+
+    // Drops keys idle for longer than any window, keeping memory proportional to active users and cards
+    @Scheduled(fixedDelayString = "${payment.risk.sweep-interval:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - longestWindowMillis;
+        counters.forEach(byKey ->
+                byKey.values().removeIf(counter -> counter.getLastUpdatedMillis() < cutoff));
+    }
+
+    private boolean exceeds(RiskProperties.Rule rule, SlidingWindowCounter counter, long now) {
+        if (rule.getMaxAttempts() != null && counter.attempts(now) > rule.getMaxAttempts()) {
+            return true;
+        }
+        return rule.getMaxAmount() != null
+                && BigDecimal.valueOf(counter.amountCents(now), 2).compareTo(rule.getMaxAmount()) > 0;
+    }
+
+    // Card numbers are never kept in memory, only a digest of them
+    private String cardFingerprint(PaymentRequestDto paymentRequest) {
+        if (paymentRequest.getCreditCard() == null || paymentRequest.getCreditCard().getCardNumber() == null) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String digits = NON_DIGITS.matcher(paymentRequest.getCreditCard().getCardNumber()).replaceAll("");
+            byte[] hash = digest.digest(digits.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Value
+    public static class RiskDecision {
+        public static final RiskDecision APPROVED = new RiskDecision(null, List.of());
+
+        // Null when no rule triggered
+        RiskProperties.Action action;
+        List<String> triggeredRules;
+
+        public boolean isRejected() {
+            return action == RiskProperties.Action.REJECT;
+        }
+
+        public boolean isFlagged() {
+            return action == RiskProperties.Action.FLAG;
+        }
+    }
+}
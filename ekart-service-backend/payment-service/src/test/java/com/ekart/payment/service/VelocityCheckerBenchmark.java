@@ -0,0 +1,115 @@
+package com.ekart.payment.service;
+
+import com.ekart.payment.config.RiskProperties;
+import com.ekart.payment.dto.PaymentRequestDto;
+import com.ekart.payment.entity.Payment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of risk screening on the payment path. Run the main method from the IDE, or with
+// mvn -pl payment-service test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+//     -Dexec.args="-cp %classpath com.ekart.payment.service.VelocityCheckerBenchmark"
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class VelocityCheckerBenchmark {
+
+    // Every thread hammers the same counter, the worst case for the compare-and-set loop
+    @State(Scope.Benchmark)
+    public static class SharedCounter {
+        SlidingWindowCounter counter;
+
+        @Setup
+        public void setUp() {
+            counter = new SlidingWindowCounter(Duration.ofMinutes(1).toMillis(), 10);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Screening {
+        // Distinct users, and so counters per rule, the checker has to hold
+        @Param({"1000", "100000"})
+        int users;
+
+        VelocityChecker checker;
+        String[] userIds;
+        PaymentRequestDto[] requests;
+
+        @Setup
+        public void setUp() {
+            RiskProperties properties = new RiskProperties();
+            properties.setRules(List.of(
+                    rule("user-attempts", RiskProperties.Key.USER, 20, null),
+                    rule("card-attempts", RiskProperties.Key.CARD, 5, null),
+                    rule("user-amount", RiskProperties.Key.USER, null, new BigDecimal("5000.00"))));
+            checker = new VelocityChecker(properties, new SimpleMeterRegistry());
+
+            userIds = new String[users];
+            requests = new PaymentRequestDto[users];
+            for (int i = 0; i < users; i++) {
+                userIds[i] = "user-" + i;
+                PaymentRequestDto request = new PaymentRequestDto();
+                request.setOrderId("order-" + i);
+                request.setAmount(new BigDecimal("49.99"));
+                request.setPaymentMethod(Payment.PaymentMethod.CREDIT_CARD);
+                request.setCreditCard(new PaymentRequestDto.CreditCardDto(
+                        String.format("4111 1111 %04d %04d", i / 10000 % 10000, i % 10000), "12", "2030", "123", "Load Test"));
+                requests[i] = request;
+            }
+        }
+
+        private static RiskProperties.Rule rule(String name, RiskProperties.Key key, Integer maxAttempts, BigDecimal maxAmount) {
+            RiskProperties.Rule rule = new RiskProperties.Rule();
+            rule.setName(name);
+            rule.setKey(key);
+            rule.setMaxAttempts(maxAttempts);
+            rule.setMaxAmount(maxAmount);
+            return rule;
+        }
+    }
+
+    @Benchmark
+    public void recordContended(SharedCounter state) {
+        state.counter.record(System.currentTimeMillis(), 4999);
+    }
+
+    @Benchmark
+    public long readContended(SharedCounter state) {
+        return state.counter.attempts(System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public VelocityChecker.RiskDecision screen(Screening state) {
+        int user = ThreadLocalRandom.current().nextInt(state.users);
+        return state.checker.screen(state.userIds[user], state.requests[user]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(VelocityCheckerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
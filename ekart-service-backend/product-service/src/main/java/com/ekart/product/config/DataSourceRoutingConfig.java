@@ -0,0 +1,66 @@
+package com.ekart.product.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaDataSourceProperties replicaProperties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("product-primary");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        int index = 0;
+        for (ReplicaDataSourceProperties.Replica replica : replicaProperties.getReplicas()) {
+            String name = replica.getName() != null ? replica.getName() : "replica-" + index;
+            replicas.put(name, createReplicaDataSource(name, replica, dataSourceProperties, replicaProperties));
+            index++;
+        }
+
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    // Defer connection checkout until the first statement, so the routing key is
+    // resolved after the transaction (and its read-only flag) has been set up.
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               ReplicaDataSourceProperties replicaProperties) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource, replicaProperties.getReplicaMaxLag());
+    }
+
+    private DataSource createReplicaDataSource(String name,
+                                               ReplicaDataSourceProperties.Replica replica,
+                                               DataSourceProperties primaryProperties,
+                                               ReplicaDataSourceProperties replicaProperties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("product-" + name);
+        dataSource.setDriverClassName(primaryProperties.getDriverClassName());
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : primaryProperties.getUsername());
+        dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : primaryProperties.getPassword());
+        dataSource.setMaximumPoolSize(replicaProperties.getReplicaPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
@@ -0,0 +1,69 @@
+package com.ekart.product.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+@RequiredArgsConstructor
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // A streaming replica that has replayed all the WAL it received is caught up, however old its
+    // last replayed transaction is, so an idle primary does not make it look stale. Once the WAL
+    // receiver has disconnected nothing new arrives, so only the replay timestamp can tell.
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') " +
+            "THEN EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())), 0) END";
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final Duration maxLag;
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${product.datasource.replica-check-interval:5000}")
+    public void checkReplicaLag() {
+        for (Map.Entry<String, DataSource> replica : routingDataSource.getReplicas().entrySet()) {
+            String name = replica.getKey();
+            boolean wasHealthy = routingDataSource.isReplicaHealthy(name);
+            boolean healthy;
+
+            try (Connection connection = replica.getValue().getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+
+                double lagSeconds = Double.MAX_VALUE;
+                // Null when the receiver disconnected before any transaction was replayed
+                if (resultSet.next()) {
+                    double lag = resultSet.getDouble(1);
+                    if (!resultSet.wasNull()) {
+                        lagSeconds = lag;
+                    }
+                }
+                healthy = lagSeconds * 1000 <= maxLag.toMillis();
+
+                if (!healthy && wasHealthy) {
+                    log.warn("Replica {} is {}s behind primary, routing reads to primary", name, lagSeconds);
+                }
+
+            } catch (Exception e) {
+                healthy = false;
+                if (wasHealthy) {
+                    log.error("Replica {} lag check failed, routing reads to primary: {}", name, e.getMessage());
+                }
+            }
+
+            if (healthy && !wasHealthy) {
+                log.info("Replica {} is within lag threshold, routing reads to it", name);
+            }
+            routingDataSource.markReplica(name, healthy);
+        }
+    }
+}
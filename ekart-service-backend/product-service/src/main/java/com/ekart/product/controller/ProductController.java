@@ -1,16 +1,20 @@
 package com.ekart.product.controller;
 
 import com.ekart.common.dto.ApiResponse;
+import com.ekart.product.dto.CoPurchaseDto;
 import com.ekart.product.dto.CreateReviewDto;
 import com.ekart.product.dto.ProductDto;
 import com.ekart.product.dto.ProductReviewDto;
+import com.ekart.product.dto.ReviewScrollDto;
 import com.ekart.product.service.ProductReviewService;
 import com.ekart.product.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -29,6 +33,10 @@ public class ProductController {
     private final ProductService productService;
     private final ProductReviewService productReviewService;
 
+    // The co-purchase index keeps no more than this many products per product
+    @Value("${product.co-purchase.top-k:20}")
+    private int maxFrequentlyBoughtTogether;
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<ProductDto>> createProduct(@Valid @RequestBody ProductDto productDto) {
@@ -144,6 +152,18 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(products, "Low stock products retrieved successfully"));
     }
 
+    @GetMapping("/{id}/frequently-bought-together")
+    public ResponseEntity<ApiResponse<List<CoPurchaseDto>>> getFrequentlyBoughtTogether(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        
+        log.info("Get frequently bought together request for product: {}", id);
+        
+        int clampedLimit = Math.max(1, Math.min(limit, maxFrequentlyBoughtTogether));
+        List<CoPurchaseDto> products = productService.getFrequentlyBoughtTogether(id, clampedLimit);
+        return ResponseEntity.ok(ApiResponse.success(products, "Frequently bought together products retrieved successfully"));
+    }
+
     // Review endpoints
     @PostMapping("/{productId}/reviews")
     public ResponseEntity<ApiResponse<ProductReviewDto>> createReview(
@@ -160,15 +180,31 @@ public class ProductController {
     }
 
     @GetMapping("/{productId}/reviews")
-    public ResponseEntity<ApiResponse<Page<ProductReviewDto>>> getProductReviews(
+    public ResponseEntity<ApiResponse<Slice<ProductReviewDto>>> getProductReviews(
             @PathVariable Long productId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         log.info("Get reviews for product: {}", productId);
         
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-        Page<ProductReviewDto> reviews = productReviewService.getProductReviews(productId, pageable);
+        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending().and(Sort.by("id").descending()));
+        Slice<ProductReviewDto> reviews = productReviewService.getProductReviews(productId, pageable);
+        return ResponseEntity.ok(ApiResponse.success(reviews, "Reviews retrieved successfully"));
+    }
+
+    @GetMapping("/{productId}/reviews/scroll")
+    public ResponseEntity<ApiResponse<ReviewScrollDto>> scrollProductReviews(
+            @PathVariable Long productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        
+        log.info("Scroll reviews for product: {}", productId);
+        
+        if (cursor != null && !cursor.isBlank() && !ProductReviewService.isValidCursor(cursor)) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("Invalid review cursor"));
+        }
+        
+        ReviewScrollDto reviews = productReviewService.scrollProductReviews(productId, cursor, size);
         return ResponseEntity.ok(ApiResponse.success(reviews, "Reviews retrieved successfully"));
     }
 
@@ -0,0 +1,14 @@
+package com.ekart.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoPurchaseDto {
+    
+    private Long productId;
+    private Integer orderCount;
+}
@@ -0,0 +1,17 @@
+package com.ekart.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewScrollDto {
+    
+    private List<ProductReviewDto> reviews;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -4,11 +4,18 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "product_reviews")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product-review")
+@Table(name = "product_reviews", indexes = {
+    @Index(name = "idx_product_reviews_product_approved_created", columnList = "product_id, approved, created_at DESC, id DESC"),
+    @Index(name = "idx_product_reviews_user_created", columnList = "user_id, created_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,10 +25,10 @@ public class ProductReview {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @Column(nullable = false)
+    @Column(name = "product_id", nullable = false)
     private Long productId;
     
-    @Column(nullable = false)
+    @Column(name = "user_id", nullable = false)
     private String userId;
     
     @Column(nullable = false)
@@ -39,7 +46,7 @@ public class ProductReview {
     @Column(nullable = false)
     private Boolean approved = true;
     
-    @Column(nullable = false)
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
     
     private LocalDateTime updatedAt = LocalDateTime.now();
@@ -0,0 +1,10 @@
+package com.ekart.product.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ReviewChangedEvent {
+    private Long productId;
+}
@@ -1,10 +1,15 @@
 package com.ekart.product.repository;
 
 import com.ekart.product.entity.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -28,8 +33,23 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     List<Product> findByActiveTrueAndStockQuantityLessThan(Integer threshold);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "product-queries")
+    })
     Optional<Product> findByIdAndActiveTrue(Long id);
     
+    @Override
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "product-queries")
+    })
+    boolean existsById(Long id);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :id")
+    Optional<Product> findByIdForUpdate(@Param("id") Long id);
+    
     Page<Product> findByFeaturedTrueAndActiveTrue(Pageable pageable);
     
     Page<Product> findByActiveTrueOrderByAverageRatingDesc(Pageable pageable);
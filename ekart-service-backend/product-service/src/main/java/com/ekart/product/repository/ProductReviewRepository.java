@@ -1,25 +1,47 @@
 package com.ekart.product.repository;
 
 import com.ekart.product.entity.ProductReview;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ProductReviewRepository extends JpaRepository<ProductReview, Long> {
     
-    Page<ProductReview> findByProductIdAndApproved(Long productId, Boolean approved, Pageable pageable);
+    Slice<ProductReview> findByProductIdAndApproved(Long productId, Boolean approved, Pageable pageable);
+    
+    // Keyset pagination: seeks past the last (createdAt, id) seen instead of skipping rows. The row
+    // value comparison lets Postgres seek straight into the (product_id, approved, created_at, id) index.
+    @Query(value = "SELECT * FROM product_reviews pr WHERE pr.product_id = :productId AND pr.approved = true AND " +
+           "(pr.created_at, pr.id) < (:createdAt, :id) " +
+           "ORDER BY pr.created_at DESC, pr.id DESC", nativeQuery = true)
+    List<ProductReview> findApprovedReviewsBefore(@Param("productId") Long productId,
+                                                  @Param("createdAt") LocalDateTime createdAt,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
     
     List<ProductReview> findByProductIdAndApproved(Long productId, Boolean approved);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "product-review-queries")
+    })
     Optional<ProductReview> findByProductIdAndUserId(Long productId, String userId);
     
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "product-review-queries")
+    })
     boolean existsByProductIdAndUserId(Long productId, String userId);
     
     @Query("SELECT AVG(pr.rating) FROM ProductReview pr WHERE pr.productId = :productId AND pr.approved = true")
@@ -28,5 +50,5 @@ public interface ProductReviewRepository extends JpaRepository<ProductReview, Lo
     @Query("SELECT COUNT(pr) FROM ProductReview pr WHERE pr.productId = :productId AND pr.approved = true")
     Integer getReviewCountByProductId(@Param("productId") Long productId);
     
-    Page<ProductReview> findByUserId(String userId, Pageable pageable);
+    Slice<ProductReview> findByUserId(String userId, Pageable pageable);
 }
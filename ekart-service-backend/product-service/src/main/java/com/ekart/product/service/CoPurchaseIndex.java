@@ -0,0 +1,231 @@
+package com.ekart.product.service;
+
+import com.ekart.product.dto.CoPurchaseDto;
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongComparator;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@Component
+@Slf4j
+public class CoPurchaseIndex {
+
+    private static final int SNAPSHOT_MAGIC = 0x45435031; // "ECP1"
+
+    @Value("${product.co-purchase.top-k:20}")
+    private int topK;
+
+    @Value("${product.co-purchase.snapshot-path:data/co-purchase.snapshot}")
+    private String snapshotPath;
+
+    // productId -> (co-purchased productId -> number of orders containing both)
+    private final Long2ObjectMap<Long2IntOpenHashMap> counts = new Long2ObjectOpenHashMap<>();
+
+    // productId -> co-purchased productIds ordered by count, at most topK entries
+    private final Long2ObjectMap<long[]> topProducts = new Long2ObjectOpenHashMap<>();
+
+    // Kafka partition -> last applied offset, persisted with the snapshot
+    private final Int2LongMap appliedOffsets = new Int2LongOpenHashMap();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void loadSnapshot() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            log.info("No co-purchase snapshot found at {}, index starts empty", path);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path))))) {
+
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                log.warn("Ignoring co-purchase snapshot with unknown format: {}", path);
+                return;
+            }
+
+            int partitions = in.readInt();
+            for (int i = 0; i < partitions; i++) {
+                appliedOffsets.put(in.readInt(), in.readLong());
+            }
+
+            int rows = in.readInt();
+            for (int i = 0; i < rows; i++) {
+                long productId = in.readLong();
+                int size = in.readInt();
+                Long2IntOpenHashMap row = new Long2IntOpenHashMap(size);
+                for (int j = 0; j < size; j++) {
+                    row.put(in.readLong(), in.readInt());
+                }
+                counts.put(productId, row);
+                topProducts.put(productId, computeTopK(row));
+            }
+
+            log.info("Loaded co-purchase snapshot with {} products from {}", rows, path);
+
+        } catch (IOException e) {
+            log.error("Failed to load co-purchase snapshot from {}, index starts empty", path, e);
+            counts.clear();
+            topProducts.clear();
+            appliedOffsets.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void saveSnapshot() throws IOException {
+        Path path = Paths.get(snapshotPath);
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+
+            out.writeInt(SNAPSHOT_MAGIC);
+
+            out.writeInt(appliedOffsets.size());
+            for (Int2LongMap.Entry entry : appliedOffsets.int2LongEntrySet()) {
+                out.writeInt(entry.getIntKey());
+                out.writeLong(entry.getLongValue());
+            }
+
+            out.writeInt(counts.size());
+            for (Long2ObjectMap.Entry<Long2IntOpenHashMap> row : counts.long2ObjectEntrySet()) {
+                out.writeLong(row.getLongKey());
+                out.writeInt(row.getValue().size());
+                for (Long2IntMap.Entry cell : row.getValue().long2IntEntrySet()) {
+                    out.writeLong(cell.getLongKey());
+                    out.writeInt(cell.getIntValue());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void recordOrder(long[] productIds, int partition, long offset) {
+        lock.writeLock().lock();
+        try {
+            if (appliedOffsets.containsKey(partition) && appliedOffsets.get(partition) >= offset) {
+                return;
+            }
+            for (long productId : productIds) {
+                Long2IntOpenHashMap row = counts.computeIfAbsent(productId, id -> new Long2IntOpenHashMap());
+                for (long other : productIds) {
+                    if (other != productId) {
+                        int count = row.addTo(other, 1) + 1;
+                        updateTopK(productId, row, other, count);
+                    }
+                }
+            }
+            appliedOffsets.put(partition, offset);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<CoPurchaseDto> getFrequentlyBoughtTogether(long productId, int limit) {
+        lock.readLock().lock();
+        try {
+            long[] top = topProducts.get(productId);
+            if (top == null) {
+                return List.of();
+            }
+            Long2IntOpenHashMap row = counts.get(productId);
+            int size = Math.min(limit, top.length);
+            List<CoPurchaseDto> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(new CoPurchaseDto(top[i], row.get(top[i])));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public OptionalLong getAppliedOffset(int partition) {
+        lock.readLock().lock();
+        try {
+            return appliedOffsets.containsKey(partition)
+                    ? OptionalLong.of(appliedOffsets.get(partition))
+                    : OptionalLong.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Counts only grow, so a product outside the top-K can only enter it
+    // at the moment its own count is incremented
+    private void updateTopK(long productId, Long2IntOpenHashMap row, long candidate, int count) {
+        long[] top = topProducts.get(productId);
+        if (top == null) {
+            topProducts.put(productId, new long[]{candidate});
+            return;
+        }
+
+        int position = -1;
+        for (int i = 0; i < top.length; i++) {
+            if (top[i] == candidate) {
+                position = i;
+                break;
+            }
+        }
+
+        if (position < 0) {
+            if (top.length < topK) {
+                top = Arrays.copyOf(top, top.length + 1);
+                topProducts.put(productId, top);
+            } else if (count <= row.get(top[top.length - 1])) {
+                return;
+            }
+            position = top.length - 1;
+            top[position] = candidate;
+        }
+
+        while (position > 0 && row.get(top[position - 1]) < count) {
+            top[position] = top[position - 1];
+            top[position - 1] = candidate;
+            position--;
+        }
+    }
+
+    private long[] computeTopK(Long2IntOpenHashMap row) {
+        LongArrayList ids = new LongArrayList(row.keySet());
+        ids.sort((LongComparator) (a, b) -> Integer.compare(row.get(b), row.get(a)));
+        return ids.size() > topK ? ids.subList(0, topK).toLongArray() : ids.toLongArray();
+    }
+}
@@ -0,0 +1,93 @@
+package com.ekart.product.service;
+
+import com.ekart.common.events.order.OrderCreatedEvent;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.OptionalLong;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CoPurchaseIndexer implements ConsumerSeekAware {
+
+    private final CoPurchaseIndex coPurchaseIndex;
+
+    @Value("${product.co-purchase.max-items-per-order:50}")
+    private int maxItemsPerOrder;
+
+    private volatile boolean dirty;
+
+    // Every instance keeps a full index, so each one consumes all partitions under its own group
+    // and resumes from the offsets stored in its snapshot. The group is named after the instance,
+    // so a restart rejoins it instead of leaving an abandoned group behind.
+    @KafkaListener(topics = "order-created-topic",
+            groupId = "product-service-co-purchase-${product.co-purchase.instance-id:${HOSTNAME:localhost}-${server.port:8082}}")
+    public void handleOrderCreated(OrderCreatedEvent event,
+                                   @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+                                   @Header(KafkaHeaders.OFFSET) long offset) {
+        if (event.getItems() == null || event.getItems().size() < 2) {
+            return;
+        }
+
+        LongLinkedOpenHashSet productIds = new LongLinkedOpenHashSet();
+        for (OrderCreatedEvent.OrderItem item : event.getItems()) {
+            if (productIds.size() >= maxItemsPerOrder) {
+                break;
+            }
+            try {
+                productIds.add(Long.parseLong(item.getProductId()));
+            } catch (NumberFormatException e) {
+                log.debug("Skipping non-numeric product ID {} in order {}", item.getProductId(), event.getOrderId());
+            }
+        }
+
+        if (productIds.size() > 1) {
+            coPurchaseIndex.recordOrder(productIds.toLongArray(), partition, offset);
+            dirty = true;
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        for (TopicPartition partition : assignments.keySet()) {
+            OptionalLong applied = coPurchaseIndex.getAppliedOffset(partition.partition());
+            if (applied.isPresent()) {
+                callback.seek(partition.topic(), partition.partition(), applied.getAsLong() + 1);
+            } else {
+                callback.seekToBeginning(partition.topic(), partition.partition());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.co-purchase.snapshot-interval:60000}")
+    public void snapshot() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        try {
+            coPurchaseIndex.saveSnapshot();
+            log.debug("Co-purchase index snapshot written");
+        } catch (Exception e) {
+            dirty = true;
+            log.error("Failed to write co-purchase index snapshot", e);
+        }
+    }
+
+    @PreDestroy
+    public void flush() {
+        snapshot();
+    }
+}
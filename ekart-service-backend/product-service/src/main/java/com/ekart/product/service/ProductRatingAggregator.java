@@ -0,0 +1,82 @@
+package com.ekart.product.service;
+
+import com.ekart.product.event.ReviewChangedEvent;
+import com.ekart.product.repository.ProductRepository;
+import com.ekart.product.repository.ProductReviewRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+public class ProductRatingAggregator {
+
+    private final ProductRepository productRepository;
+    private final ProductReviewRepository reviewRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Set<Long> dirtyProducts = ConcurrentHashMap.newKeySet();
+
+    public ProductRatingAggregator(ProductRepository productRepository,
+                                   ProductReviewRepository reviewRepository,
+                                   PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.reviewRepository = reviewRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Only committed reviews are visible to the recompute, so mark after commit
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReviewChanged(ReviewChangedEvent event) {
+        dirtyProducts.add(event.getProductId());
+    }
+
+    @Scheduled(fixedDelayString = "${product.rating.recompute-interval:2000}")
+    public void recomputeDirtyRatings() {
+        if (dirtyProducts.isEmpty()) {
+            return;
+        }
+
+        List<Long> batch = new ArrayList<>(dirtyProducts);
+        batch.forEach(dirtyProducts::remove);
+
+        log.debug("Recomputing rating statistics for {} products", batch.size());
+
+        for (Long productId : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> refreshRatingStats(productId));
+            } catch (Exception e) {
+                log.error("Failed to recompute rating statistics for product: {}", productId, e);
+                dirtyProducts.add(productId);
+            }
+        }
+    }
+
+    // The product row is locked before aggregating, so a concurrent recompute
+    // waits and then sees every review committed before it; the entity update
+    // keeps the second-level cache entry coherent
+    private void refreshRatingStats(Long productId) {
+        productRepository.findByIdForUpdate(productId).ifPresent(product -> {
+            Double averageRating = reviewRepository.getAverageRatingByProductId(productId);
+            Integer reviewCount = reviewRepository.getReviewCountByProductId(productId);
+
+            product.setAverageRating(averageRating != null ? averageRating : 0.0);
+            product.setReviewCount(reviewCount != null ? reviewCount : 0);
+        });
+    }
+
+    @PreDestroy
+    public void flush() {
+        recomputeDirtyRatings();
+    }
+}
@@ -2,18 +2,26 @@ package com.ekart.product.service;
 
 import com.ekart.product.dto.CreateReviewDto;
 import com.ekart.product.dto.ProductReviewDto;
-import com.ekart.product.entity.Product;
+import com.ekart.product.dto.ReviewScrollDto;
 import com.ekart.product.entity.ProductReview;
+import com.ekart.product.event.ReviewChangedEvent;
 import com.ekart.product.repository.ProductRepository;
 import com.ekart.product.repository.ProductReviewRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +30,10 @@ public class ProductReviewService {
 
     private final ProductReviewRepository reviewRepository;
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.reviews.max-page-size:100}")
+    private int maxPageSize;
 
     @Transactional
     public ProductReviewDto createReview(Long productId, CreateReviewDto createReviewDto, String userId, String userName) {
@@ -49,17 +61,41 @@ public class ProductReviewService {
 
         ProductReview savedReview = reviewRepository.save(review);
 
-        // Update product rating statistics
-        updateProductRatingStats(productId);
+        // Rating statistics are recomputed asynchronously
+        eventPublisher.publishEvent(new ReviewChangedEvent(productId));
 
         return convertToDto(savedReview);
     }
 
-    public Page<ProductReviewDto> getProductReviews(Long productId, Pageable pageable) {
-        Page<ProductReview> reviews = reviewRepository.findByProductIdAndApproved(productId, true, pageable);
+    @Transactional(readOnly = true)
+    public Slice<ProductReviewDto> getProductReviews(Long productId, Pageable pageable) {
+        Slice<ProductReview> reviews = reviewRepository.findByProductIdAndApproved(productId, true, pageable);
         return reviews.map(this::convertToDto);
     }
 
+    @Transactional(readOnly = true)
+    public ReviewScrollDto scrollProductReviews(Long productId, String cursor, int requestedSize) {
+        int size = Math.max(1, Math.min(requestedSize, maxPageSize));
+        // Fetch one extra row to learn whether another page exists without counting
+        Pageable limit = PageRequest.of(0, size + 1, Sort.by("createdAt").descending().and(Sort.by("id").descending()));
+
+        List<ProductReview> reviews;
+        if (cursor == null || cursor.isBlank()) {
+            reviews = reviewRepository.findByProductIdAndApproved(productId, true, limit).getContent();
+        } else {
+            String[] position = decodeCursor(cursor);
+            reviews = reviewRepository.findApprovedReviewsBefore(
+                    productId, LocalDateTime.parse(position[0]), Long.valueOf(position[1]), PageRequest.of(0, size + 1));
+        }
+
+        boolean hasNext = reviews.size() > size;
+        List<ProductReview> page = hasNext ? reviews.subList(0, size) : reviews;
+        String nextCursor = hasNext ? encodeCursor(page.get(page.size() - 1)) : null;
+
+        return new ReviewScrollDto(page.stream().map(this::convertToDto).toList(), nextCursor, hasNext);
+    }
+
+    @Transactional(readOnly = true)
     public ProductReviewDto getUserReview(Long productId, String userId) {
         ProductReview review = reviewRepository.findByProductIdAndUserId(productId, userId)
             .orElseThrow(() -> new RuntimeException("Review not found"));
@@ -81,8 +117,8 @@ public class ProductReviewService {
 
         ProductReview savedReview = reviewRepository.save(review);
 
-        // Update product rating statistics
-        updateProductRatingStats(review.getProductId());
+        // Rating statistics are recomputed asynchronously
+        eventPublisher.publishEvent(new ReviewChangedEvent(review.getProductId()));
 
         return convertToDto(savedReview);
     }
@@ -99,26 +135,43 @@ public class ProductReviewService {
         Long productId = review.getProductId();
         reviewRepository.delete(review);
 
-        // Update product rating statistics
-        updateProductRatingStats(productId);
+        // Rating statistics are recomputed asynchronously
+        eventPublisher.publishEvent(new ReviewChangedEvent(productId));
     }
 
-    public Page<ProductReviewDto> getUserReviews(String userId, Pageable pageable) {
-        Page<ProductReview> reviews = reviewRepository.findByUserId(userId, pageable);
+    @Transactional(readOnly = true)
+    public Slice<ProductReviewDto> getUserReviews(String userId, Pageable pageable) {
+        Slice<ProductReview> reviews = reviewRepository.findByUserId(userId, pageable);
         return reviews.map(this::convertToDto);
     }
 
-    private void updateProductRatingStats(Long productId) {
-        Double averageRating = reviewRepository.getAverageRatingByProductId(productId);
-        Integer reviewCount = reviewRepository.getReviewCountByProductId(productId);
-
-        Product product = productRepository.findById(productId)
-            .orElseThrow(() -> new RuntimeException("Product not found"));
+    private String encodeCursor(ProductReview review) {
+        String position = review.getCreatedAt() + "|" + review.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
 
-        product.setAverageRating(averageRating != null ? averageRating : 0.0);
-        product.setReviewCount(reviewCount != null ? reviewCount : 0);
+    public static boolean isValidCursor(String cursor) {
+        try {
+            decodeCursor(cursor);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
 
-        productRepository.save(product);
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid review cursor");
+        }
     }
 
     private ProductReviewDto convertToDto(ProductReview review) {
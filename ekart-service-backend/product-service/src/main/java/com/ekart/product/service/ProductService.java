@@ -1,5 +1,6 @@
 package com.ekart.product.service;
 
+import com.ekart.product.dto.CoPurchaseDto;
 import com.ekart.product.dto.ProductDto;
 import com.ekart.product.entity.Product;
 import com.ekart.product.exception.ProductNotFoundException;
@@ -21,6 +22,7 @@ import java.util.List;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final CoPurchaseIndex coPurchaseIndex;
 
     @Transactional
     @CircuitBreaker(name = "product-service", fallbackMethod = "createProductFallback")
@@ -35,6 +37,7 @@ public class ProductService {
         return convertToDto(savedProduct);
     }
 
+    @Transactional(readOnly = true)
     @CircuitBreaker(name = "product-service", fallbackMethod = "getAllProductsFallback")
     @Retry(name = "product-service")
     public Page<ProductDto> getAllProducts(Pageable pageable) {
@@ -44,6 +47,7 @@ public class ProductService {
         return products.map(this::convertToDto);
     }
 
+    @Transactional(readOnly = true)
     @CircuitBreaker(name = "product-service", fallbackMethod = "getProductByIdFallback")
     @Retry(name = "product-service")
     public ProductDto getProductById(Long id) {
@@ -55,6 +59,7 @@ public class ProductService {
         return convertToDto(product);
     }
 
+    @Transactional(readOnly = true)
     @CircuitBreaker(name = "product-service", fallbackMethod = "getProductsByCategoryFallback")
     @Retry(name = "product-service")
     public Page<ProductDto> getProductsByCategory(String category, Pageable pageable) {
@@ -64,6 +69,7 @@ public class ProductService {
         return products.map(this::convertToDto);
     }
 
+    @Transactional(readOnly = true)
     @CircuitBreaker(name = "product-service", fallbackMethod = "searchProductsFallback")
     @Retry(name = "product-service")
     public Page<ProductDto> searchProducts(String query, Pageable pageable) {
@@ -120,6 +126,7 @@ public class ProductService {
         return convertToDto(updatedProduct);
     }
 
+    @Transactional(readOnly = true)
     @CircuitBreaker(name = "product-service", fallbackMethod = "getLowStockProductsFallback")
     @Retry(name = "product-service")
     public List<ProductDto> getLowStockProducts(Integer threshold) {
@@ -129,6 +136,13 @@ public class ProductService {
         return products.stream().map(this::convertToDto).toList();
     }
 
+    public List<CoPurchaseDto> getFrequentlyBoughtTogether(Long id, int limit) {
+        log.info("Fetching frequently bought together products for ID: {}", id);
+        
+        // Served from the in-memory co-purchase index, no database access
+        return coPurchaseIndex.getFrequentlyBoughtTogether(id, limit);
+    }
+
     private Product convertToEntity(ProductDto dto) {
         Product product = new Product();
         product.setName(dto.getName());
@@ -233,6 +247,7 @@ public class ProductService {
         throw new RuntimeException("Low stock products service is temporarily unavailable");
     }
 
+    @Transactional(readOnly = true)
     @CircuitBreaker(name = "product-service", fallbackMethod = "getFeaturedProductsFallback")
     @Retry(name = "product-service")
     public Page<ProductDto> getFeaturedProducts(Pageable pageable) {
@@ -242,6 +257,7 @@ public class ProductService {
         return products.map(this::convertToDto);
     }
 
+    @Transactional(readOnly = true)
     @CircuitBreaker(name = "product-service", fallbackMethod = "getTopRatedProductsFallback")
     @Retry(name = "product-service")
     public Page<ProductDto> getTopRatedProducts(Pageable pageable) {